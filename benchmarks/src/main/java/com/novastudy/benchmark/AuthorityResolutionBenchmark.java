@@ -0,0 +1,48 @@
+package com.novastudy.benchmark;
+
+import com.novastudy.entity.Permission;
+import com.novastudy.entity.Role;
+import com.novastudy.entity.User;
+import com.novastudy.service.AuthoritySnapshotCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// UserService.extractAuthoritiesFromUser delegates to the snapshot cache, resolved over in-memory entities
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorityResolutionBenchmark {
+    @Param({"1", "3", "10"})
+    public int rolesPerUser;
+
+    @Param({"20"})
+    public int permissionsPerRole;
+
+    private AuthoritySnapshotCache authoritySnapshotCache;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        List<Role> roles = new ArrayList<>();
+        long permissionId = 1;
+        for (long roleId = 1; roleId <= rolesPerUser; roleId++) {
+            Set<Permission> permissions = new HashSet<>();
+            for (int i = 0; i < permissionsPerRole; i++, permissionId++) {
+                permissions.add(Permission.builder().id(permissionId).name("PERMISSION_" + permissionId).build());
+            }
+            roles.add(Role.builder().id(roleId).name("ROLE_" + roleId).permissions(permissions).build());
+        }
+        authoritySnapshotCache = new AuthoritySnapshotCache(BenchmarkFixtures.roleRepository(roles));
+        user = User.builder().username("benchmark_user").roles(new HashSet<>(roles)).build();
+    }
+
+    @Benchmark
+    public Set<String> resolve() {
+        return authoritySnapshotCache.resolve(user);
+    }
+}
@@ -0,0 +1,105 @@
+package com.novastudy.benchmark;
+
+import com.novastudy.config.AuthorityInterceptor;
+import com.novastudy.config.RequiresAuthority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+// @PreAuthorize through the method security interceptor against the cached @RequiresAuthority check
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationBenchmark {
+    @Param({"20", "200"})
+    public int authorityCount;
+
+    private AuthorizationManagerBeforeMethodInterceptor methodSecurityInterceptor;
+    private MethodInvocation invocation;
+    private AuthorityInterceptor authorityInterceptor;
+    private HandlerMethod handlerMethod;
+
+    @Setup
+    public void setUp() throws Exception {
+        String token = BenchmarkFixtures.tokenSecurityUtil(3600)
+                .createAccessToken("benchmark_user", BenchmarkFixtures.authorities(authorityCount));
+        Jwt jwt = BenchmarkFixtures.jwtDecoder().decode(token);
+        SecurityContextHolder.getContext().setAuthentication(BenchmarkFixtures.jwtAuthenticationConverter().convert(jwt));
+
+        ProfileController controller = new ProfileController();
+        Method method = ProfileController.class.getMethod("profile");
+        methodSecurityInterceptor = AuthorizationManagerBeforeMethodInterceptor.preAuthorize();
+        invocation = new Invocation(controller, method);
+
+        authorityInterceptor = new AuthorityInterceptor(
+                new StaticListableBeanFactory().getBeanProvider(RequestMappingHandlerMapping.class), new SimpleMeterRegistry());
+        handlerMethod = new HandlerMethod(controller, method);
+        // resolves and caches the rule, the measured calls only look it up
+        authorityInterceptor.preHandle(null, null, handlerMethod);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object preAuthorize() throws Throwable {
+        return methodSecurityInterceptor.invoke(invocation);
+    }
+
+    @Benchmark
+    public boolean requiresAuthority() {
+        return authorityInterceptor.preHandle(null, null, handlerMethod);
+    }
+
+    public static class ProfileController {
+        @PreAuthorize("hasAuthority('PERMISSION_1')")
+        @RequiresAuthority("PERMISSION_1")
+        public String profile() {
+            return "profile";
+        }
+    }
+
+    // stands in for the AOP proxy call, proceeding returns without invoking the target
+    private record Invocation(Object target, Method method) implements MethodInvocation {
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return new Object[0];
+        }
+
+        @Override
+        public Object proceed() {
+            return target;
+        }
+
+        @Override
+        public Object getThis() {
+            return target;
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return method;
+        }
+    }
+}
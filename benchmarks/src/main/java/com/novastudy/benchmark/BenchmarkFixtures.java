@@ -0,0 +1,124 @@
+package com.novastudy.benchmark;
+
+import com.novastudy.config.CustomJwtAuthenticationConverter;
+import com.novastudy.config.JwtConfiguration;
+import com.novastudy.config.TokenProperties;
+import com.novastudy.entity.Permission;
+import com.novastudy.entity.Role;
+import com.novastudy.repository.RoleRepository;
+import com.novastudy.service.AuthorityClaimCodec;
+import com.novastudy.service.AuthorityRegistry;
+import com.novastudy.service.AuthoritySnapshotCache;
+import com.novastudy.utils.TokenSecurityUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.oauth2.jwt.*;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+// wires the token components by hand, without a Spring context
+final class BenchmarkFixtures {
+    static final String SECRET = "jnYibI0Bg5E6cy8+LekPE0FFqieiMjXj3eKRhSqQk/cvZrbc185UKkKfvxjG2LFUYLsofepxPXwst7SiqsaX/w==";
+    // the permission index holds every name authorities(n) can return
+    static final int INDEXED_AUTHORITIES = 200;
+    private static final AuthoritySnapshotCache AUTHORITY_SNAPSHOT_CACHE = new AuthoritySnapshotCache(roleRepository(List.of(
+            Role.builder().id(1L).name("ROLE_USER").permissions(permissions(INDEXED_AUTHORITIES)).build())));
+    private static final AuthorityRegistry AUTHORITY_REGISTRY = new AuthorityRegistry(new SimpleMeterRegistry());
+
+    private BenchmarkFixtures() {
+    }
+
+    static TokenProperties tokenProperties(long accessTokenValidateSeconds) {
+        TokenProperties tokenProperties = new TokenProperties();
+        tokenProperties.setSecret(SECRET);
+        tokenProperties.setAccessTokenValidateSeconds(accessTokenValidateSeconds);
+        tokenProperties.setRefreshTokenValidateSeconds(864000);
+        return tokenProperties;
+    }
+
+    static TokenSecurityUtil tokenSecurityUtil(long accessTokenValidateSeconds) {
+        return tokenSecurityUtil(accessTokenValidateSeconds, false);
+    }
+
+    static TokenSecurityUtil tokenSecurityUtil(long accessTokenValidateSeconds, boolean compactAuthorities) {
+        return tokenSecurityUtil(accessTokenValidateSeconds, compactAuthorities, TokenProperties.Codec.NIMBUS);
+    }
+
+    static TokenSecurityUtil tokenSecurityUtil(long accessTokenValidateSeconds, boolean compactAuthorities,
+                                               TokenProperties.Codec codec) {
+        TokenProperties tokenProperties = tokenProperties(accessTokenValidateSeconds);
+        tokenProperties.setCompactAuthorities(compactAuthorities);
+        tokenProperties.setCodec(codec);
+        return tokenSecurityUtil(tokenProperties);
+    }
+
+    static TokenSecurityUtil tokenSecurityUtil(TokenProperties tokenProperties) {
+        return new TokenSecurityUtil(new JwtConfiguration(tokenProperties).jwtEncoder(), tokenProperties,
+                authorityClaimCodec(tokenProperties));
+    }
+
+    static CustomJwtAuthenticationConverter jwtAuthenticationConverter() {
+        return new CustomJwtAuthenticationConverter(authorityClaimCodec(tokenProperties(3600)));
+    }
+
+    static AuthorityClaimCodec authorityClaimCodec(TokenProperties tokenProperties) {
+        return new AuthorityClaimCodec(AUTHORITY_SNAPSHOT_CACHE, AUTHORITY_REGISTRY, tokenProperties);
+    }
+
+    private static Set<Permission> permissions(int authorityCount) {
+        Set<Permission> permissions = new HashSet<>();
+        for (long i = 1; i < authorityCount; i++) {
+            permissions.add(Permission.builder().id(i).name("PERMISSION_" + i).build());
+        }
+        return permissions;
+    }
+
+    // only findAllWithPermissions is used by the snapshot cache
+    static RoleRepository roleRepository(List<Role> roles) {
+        return (RoleRepository) Proxy.newProxyInstance(RoleRepository.class.getClassLoader(),
+                new Class<?>[]{RoleRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAllWithPermissions")) {
+                        return roles;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // same claims as TokenSecurityUtil issues, but expired an hour ago
+    static String expiredAccessToken(Set<String> authorities) {
+        Instant issuedAt = Instant.now().minus(2, ChronoUnit.HOURS);
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plus(1, ChronoUnit.HOURS))
+                .subject("benchmark_user")
+                .id("expired-benchmark-token")
+                .claim("token_type", "access")
+                .claim("authorities", authorities)
+                .build();
+        JwtEncoder jwtEncoder = new JwtConfiguration(tokenProperties(3600)).jwtEncoder();
+        return jwtEncoder.encode(JwtEncoderParameters.from(JwsHeader.with(TokenSecurityUtil.JWT_ALGORITHM).build(), claims))
+                .getTokenValue();
+    }
+
+    static JwtDecoder jwtDecoder() {
+        return jwtDecoder(TokenProperties.Codec.NIMBUS);
+    }
+
+    static JwtDecoder jwtDecoder(TokenProperties.Codec codec) {
+        TokenProperties tokenProperties = tokenProperties(3600);
+        tokenProperties.setCodec(codec);
+        return new JwtConfiguration(tokenProperties).jwtDecoder(new SimpleMeterRegistry());
+    }
+
+    static Set<String> authorities(int count) {
+        Set<String> authorities = new LinkedHashSet<>();
+        authorities.add("ROLE_USER");
+        for (int i = 1; i < count; i++) {
+            authorities.add("PERMISSION_" + i);
+        }
+        return authorities;
+    }
+}
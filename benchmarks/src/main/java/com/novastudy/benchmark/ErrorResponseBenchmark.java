@@ -0,0 +1,60 @@
+package com.novastudy.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.novastudy.enums.ErrorCode;
+import com.novastudy.exception.AppException;
+import com.novastudy.exception.ErrorBodyCache;
+import com.novastudy.exception.ErrorResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// the 401 path of a failed refresh: raise the exception, then render its body
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorResponseBenchmark {
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+
+    // what AppException cost before client errors became stackless
+    @Benchmark
+    public Object stackTraceException() {
+        return new RuntimeException("Refresh token is not valid");
+    }
+
+    @Benchmark
+    public Object appException() {
+        return AppException.unauthorized("Refresh token is not valid");
+    }
+
+    @Benchmark
+    public int jacksonBody() throws IOException {
+        out.reset();
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .status(ErrorCode.UNAUTHORIZED.getHttpStatus().value())
+                .message("Refresh token is not valid")
+                .path("/auth/refresh-token")
+                .errorCode(ErrorCode.UNAUTHORIZED.getErrorCode())
+                .timestamp(LocalDateTime.now())
+                .build();
+        mapper.writeValue(out, errorResponse);
+        return out.size();
+    }
+
+    @Benchmark
+    public int cachedBody() {
+        return ErrorBodyCache.render(ErrorCode.UNAUTHORIZED, "Refresh token is not valid", "/auth/refresh-token",
+                LocalDateTime.now()).length;
+    }
+}
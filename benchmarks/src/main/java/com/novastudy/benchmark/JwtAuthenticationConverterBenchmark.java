@@ -0,0 +1,37 @@
+package com.novastudy.benchmark;
+
+import com.novastudy.config.CustomJwtAuthenticationConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationConverterBenchmark {
+    @Param({"1", "20", "200"})
+    public int authorityCount;
+
+    @Param({"false", "true"})
+    public boolean compactAuthorities;
+
+    private CustomJwtAuthenticationConverter converter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        converter = BenchmarkFixtures.jwtAuthenticationConverter();
+        String token = BenchmarkFixtures.tokenSecurityUtil(3600, compactAuthorities)
+                .createAccessToken("benchmark_user", BenchmarkFixtures.authorities(authorityCount));
+        jwt = BenchmarkFixtures.jwtDecoder().decode(token);
+    }
+
+    @Benchmark
+    public Object convert() {
+        return converter.convert(jwt);
+    }
+}
@@ -0,0 +1,54 @@
+package com.novastudy.benchmark;
+
+import com.novastudy.config.TokenProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtDecoderBenchmark {
+    @Param({"valid", "expired", "tampered"})
+    public String tokenKind;
+
+    @Param({"NIMBUS", "HS256"})
+    public TokenProperties.Codec codec;
+
+    private JwtDecoder jwtDecoder;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtDecoder = BenchmarkFixtures.jwtDecoder(codec);
+        token = switch (tokenKind) {
+            case "valid" -> BenchmarkFixtures.tokenSecurityUtil(3600)
+                    .createAccessToken("benchmark_user", BenchmarkFixtures.authorities(20));
+            case "expired" -> BenchmarkFixtures.expiredAccessToken(BenchmarkFixtures.authorities(20));
+            case "tampered" -> tamper(BenchmarkFixtures.tokenSecurityUtil(3600)
+                    .createAccessToken("benchmark_user", BenchmarkFixtures.authorities(20)));
+            default -> throw new IllegalArgumentException(tokenKind);
+        };
+    }
+
+    // flips one character of the signature so only the MAC check fails
+    private static String tamper(String token) {
+        int index = token.length() - 5;
+        char replacement = token.charAt(index) == 'A' ? 'B' : 'A';
+        return token.substring(0, index) + replacement + token.substring(index + 1);
+    }
+
+    @Benchmark
+    public Object decode() {
+        try {
+            return jwtDecoder.decode(token);
+        } catch (JwtException e) {
+            return e;
+        }
+    }
+}
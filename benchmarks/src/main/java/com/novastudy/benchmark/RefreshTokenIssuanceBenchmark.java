@@ -0,0 +1,35 @@
+package com.novastudy.benchmark;
+
+import com.novastudy.config.TokenProperties;
+import com.novastudy.utils.TokenSecurityUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// stateless refresh adds the role ids and the authority snapshot version to the token
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RefreshTokenIssuanceBenchmark {
+    @Param({"false", "true"})
+    public boolean statelessRefresh;
+
+    private TokenSecurityUtil tokenSecurityUtil;
+    private final Set<Long> roleIds = Set.of(1L, 2L);
+
+    @Setup
+    public void setUp() {
+        TokenProperties tokenProperties = BenchmarkFixtures.tokenProperties(3600);
+        tokenProperties.setStatelessRefresh(statelessRefresh);
+        tokenSecurityUtil = BenchmarkFixtures.tokenSecurityUtil(tokenProperties);
+    }
+
+    @Benchmark
+    public String createRefreshToken() {
+        return tokenSecurityUtil.createRefreshToken("benchmark_user", "0b7c5f0e-8d6a-4d39-9a52-4f3c2b1e7d10", roleIds, 3L);
+    }
+}
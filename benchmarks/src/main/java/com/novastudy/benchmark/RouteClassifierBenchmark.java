@@ -0,0 +1,31 @@
+package com.novastudy.benchmark;
+
+import com.novastudy.config.RouteClassifier;
+import com.novastudy.config.RouteProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// RouteClassifier replaced PublicEndpoints.isPublic
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteClassifierBenchmark {
+    @Param({"/auth/login", "/auth/my-account", "/actuator/prometheus", "/api/courses/42/lessons"})
+    public String path;
+
+    private RouteClassifier routeClassifier;
+
+    @Setup
+    public void setUp() {
+        routeClassifier = new RouteClassifier(new RouteProperties());
+    }
+
+    @Benchmark
+    public boolean isPublic() {
+        return routeClassifier.isPublic(path);
+    }
+}
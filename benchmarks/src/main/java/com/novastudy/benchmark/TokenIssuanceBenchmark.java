@@ -0,0 +1,39 @@
+package com.novastudy.benchmark;
+
+import com.novastudy.config.TokenProperties;
+import com.novastudy.utils.TokenSecurityUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenIssuanceBenchmark {
+    @Param({"1", "20", "200"})
+    public int authorityCount;
+
+    @Param({"false", "true"})
+    public boolean compactAuthorities;
+
+    @Param({"NIMBUS", "HS256"})
+    public TokenProperties.Codec codec;
+
+    private TokenSecurityUtil tokenSecurityUtil;
+    private Set<String> authorities;
+
+    @Setup
+    public void setUp() {
+        tokenSecurityUtil = BenchmarkFixtures.tokenSecurityUtil(3600, compactAuthorities, codec);
+        authorities = BenchmarkFixtures.authorities(authorityCount);
+    }
+
+    @Benchmark
+    public String createAccessToken() {
+        return tokenSecurityUtil.createAccessToken("benchmark_user", authorities);
+    }
+}
@@ -0,0 +1,80 @@
+package com.novastudy.config;
+
+import com.novastudy.exception.AppException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// @RequiresAuthority rules are resolved once per handler and cached, requests only do a map lookup and set checks.
+// the cache is warmed from this context's handler mappings at startup; a handler missing from it is resolved on
+// first use, so an absent entry never means allow
+@Component
+public class AuthorityInterceptor implements HandlerInterceptor, SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(AuthorityInterceptor.class);
+
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMappings;
+    private final Counter deniedCounter;
+    private final Map<HandlerKey, Optional<AuthorityRule>> rules = new ConcurrentHashMap<>();
+
+    public AuthorityInterceptor(ObjectProvider<RequestMappingHandlerMapping> handlerMappings, MeterRegistry meterRegistry) {
+        this.handlerMappings = handlerMappings;
+        this.deniedCounter = Counter.builder("novastudy.authorization.denied")
+                .register(meterRegistry);
+    }
+
+    // only this bean's own context, a child context such as the management server never replaces the rules
+    @Override
+    public void afterSingletonsInstantiated() {
+        handlerMappings.orderedStream()
+                .flatMap(mapping -> mapping.getHandlerMethods().values().stream())
+                .forEach(this::rule);
+        logger.info("Compiled {} authority rules", rules.values().stream().filter(Optional::isPresent).count());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Optional<AuthorityRule> rule = rule(handlerMethod);
+        if (rule.isEmpty() || rule.get().permits(SecurityContextHolder.getContext().getAuthentication())) {
+            return true;
+        }
+        deniedCounter.increment();
+        throw AppException.forbidden();
+    }
+
+    private Optional<AuthorityRule> rule(HandlerMethod handlerMethod) {
+        return rules.computeIfAbsent(new HandlerKey(handlerMethod.getBeanType(), handlerMethod.getMethod()),
+                key -> Optional.ofNullable(resolve(key.beanType(), key.method())));
+    }
+
+    // a method level annotation overrides the one on the controller
+    static AuthorityRule resolve(Class<?> beanType, Method method) {
+        RequiresAuthority annotation = AnnotatedElementUtils.findMergedAnnotation(method, RequiresAuthority.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(beanType, RequiresAuthority.class);
+        }
+        return annotation != null ? AuthorityRule.of(annotation) : null;
+    }
+
+    // the type annotation belongs to the controller, an inherited method can be guarded differently per subclass
+    private record HandlerKey(Class<?> beanType, Method method) {
+    }
+}
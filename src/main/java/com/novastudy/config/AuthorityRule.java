@@ -0,0 +1,48 @@
+package com.novastudy.config;
+
+import com.novastudy.service.AuthoritySet;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+// a @RequiresAuthority resolved once at startup
+public record AuthorityRule(String[] authorities, boolean requireAll) {
+
+    public static AuthorityRule of(RequiresAuthority annotation) {
+        if (annotation.value().length == 0) {
+            throw new IllegalStateException("@RequiresAuthority needs at least one authority");
+        }
+        return new AuthorityRule(annotation.value().clone(), annotation.requireAll());
+    }
+
+    public boolean permits(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        // a shared AuthoritySet for bearer tokens, so each check is a hash lookup
+        Collection<? extends GrantedAuthority> granted = authentication.getAuthorities();
+        for (String authority : authorities) {
+            boolean has = has(granted, authority);
+            if (has && !requireAll) {
+                return true;
+            }
+            if (!has && requireAll) {
+                return false;
+            }
+        }
+        return requireAll;
+    }
+
+    private static boolean has(Collection<? extends GrantedAuthority> granted, String authority) {
+        if (granted instanceof AuthoritySet authoritySet) {
+            return authoritySet.hasAuthority(authority);
+        }
+        for (GrantedAuthority grantedAuthority : granted) {
+            if (authority.equals(grantedAuthority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,81 @@
+package com.novastudy.config;
+
+import java.util.Arrays;
+
+// unpadded base64url over byte ranges, as used in compact JWS serialization
+final class Base64Url {
+    private static final byte[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes();
+    private static final int[] VALUES = new int[128];
+
+    static {
+        Arrays.fill(VALUES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base64Url() {
+    }
+
+    static int encodedLength(int length) {
+        return (length * 4 + 2) / 3;
+    }
+
+    // writes the encoding of src[0, length) into dst at offset, returns the offset after it
+    static int encode(byte[] src, int length, byte[] dst, int offset) {
+        int i = 0;
+        for (; i + 3 <= length; i += 3) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[offset++] = ALPHABET[bits >>> 18];
+            dst[offset++] = ALPHABET[(bits >>> 12) & 0x3F];
+            dst[offset++] = ALPHABET[(bits >>> 6) & 0x3F];
+            dst[offset++] = ALPHABET[bits & 0x3F];
+        }
+        int remaining = length - i;
+        if (remaining == 1) {
+            int bits = (src[i] & 0xFF) << 16;
+            dst[offset++] = ALPHABET[bits >>> 18];
+            dst[offset++] = ALPHABET[(bits >>> 12) & 0x3F];
+        } else if (remaining == 2) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+            dst[offset++] = ALPHABET[bits >>> 18];
+            dst[offset++] = ALPHABET[(bits >>> 12) & 0x3F];
+            dst[offset++] = ALPHABET[(bits >>> 6) & 0x3F];
+        }
+        return offset;
+    }
+
+    static byte[] decode(byte[] src, int from, int to) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            throw new IllegalArgumentException("Invalid base64url length");
+        }
+        byte[] out = new byte[length * 3 / 4];
+        int o = 0;
+        int i = from;
+        for (; i + 4 <= to; i += 4) {
+            int bits = value(src[i]) << 18 | value(src[i + 1]) << 12 | value(src[i + 2]) << 6 | value(src[i + 3]);
+            out[o++] = (byte) (bits >>> 16);
+            out[o++] = (byte) (bits >>> 8);
+            out[o++] = (byte) bits;
+        }
+        int remaining = to - i;
+        if (remaining == 2) {
+            int bits = value(src[i]) << 18 | value(src[i + 1]) << 12;
+            out[o] = (byte) (bits >>> 16);
+        } else if (remaining == 3) {
+            int bits = value(src[i]) << 18 | value(src[i + 1]) << 12 | value(src[i + 2]) << 6;
+            out[o++] = (byte) (bits >>> 16);
+            out[o] = (byte) (bits >>> 8);
+        }
+        return out;
+    }
+
+    private static int value(byte b) {
+        int value = b >= 0 ? VALUES[b] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid base64url character");
+        }
+        return value;
+    }
+}
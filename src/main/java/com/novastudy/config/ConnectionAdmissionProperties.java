@@ -0,0 +1,18 @@
+package com.novastudy.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "novastudy.datasource.admission")
+@Getter
+@Setter
+public class ConnectionAdmissionProperties {
+    // 0 means the maximum size of the connection pool
+    private int maxConcurrent = 0;
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+}
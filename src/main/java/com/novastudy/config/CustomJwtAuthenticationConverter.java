@@ -1,36 +1,32 @@
 package com.novastudy.config;
 
+import com.novastudy.service.AuthorityClaimCodec;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Component
 public class CustomJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+    private final AuthorityClaimCodec authorityClaimCodec;
+
+    public CustomJwtAuthenticationConverter(AuthorityClaimCodec authorityClaimCodec) {
+        this.authorityClaimCodec = authorityClaimCodec;
+    }
 
     @Override
-    public AbstractAuthenticationToken convert(Jwt jwt) {
+    public InternedJwtAuthenticationToken convert(Jwt jwt) {
         // validate token type
         String tokenType = jwt.getClaimAsString("token_type");
         if (tokenType == null || !tokenType.equals("access")) {
-            throw new IllegalArgumentException("Invalid token type: must be access_token");
+            throw new BadJwtException("Invalid token type: must be access_token");
+        }
+        if (jwt.getSubject() == null) {
+            throw new BadJwtException("Invalid JWT token: missing username");
         }
 
         // extract authorities
-        List<String> authorities= jwt.getClaimAsStringList("authorities") != null ?
-                jwt.getClaimAsStringList("authorities") : Collections.emptyList();
-
-        List<GrantedAuthority> grantedAuthorities = authorities.stream()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
-
-        return new JwtAuthenticationToken(jwt, grantedAuthorities);
+        return new InternedJwtAuthenticationToken(jwt, authorityClaimCodec.decode(jwt));
     }
 }
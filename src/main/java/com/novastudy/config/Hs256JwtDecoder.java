@@ -0,0 +1,99 @@
+package com.novastudy.config;
+
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// verifies tokens carrying the fixed HS256 header without the JOSE object model; anything else goes to Nimbus
+public class Hs256JwtDecoder implements JwtDecoder {
+    // same wording as NimbusJwtDecoder so failure reasons in TimedJwtDecoder stay the same
+    private static final String DECODING_ERROR_MESSAGE_TEMPLATE = "An error occurred while attempting to decode the Jwt: %s";
+    private static final String PREFIX = Hs256JwtEncoder.HEADER_SEGMENT + ".";
+    private static final Map<String, Object> HEADERS = Map.of("alg", "HS256");
+
+    private final Hs256Mac mac;
+    private final OAuth2TokenValidator<Jwt> jwtValidator;
+    private final JwtDecoder fallback;
+
+    public Hs256JwtDecoder(SecretKey secretKey, OAuth2TokenValidator<Jwt> jwtValidator, JwtDecoder fallback) {
+        this.mac = new Hs256Mac(secretKey);
+        this.jwtValidator = jwtValidator;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (token == null || !token.startsWith(PREFIX)) {
+            return fallback.decode(token);
+        }
+        int payloadEnd = token.indexOf('.', PREFIX.length());
+        if (payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            throw new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, "Malformed token"));
+        }
+        // non-ASCII characters become '?' and fail base64url decoding below
+        byte[] bytes = token.getBytes(StandardCharsets.ISO_8859_1);
+
+        byte[] signature;
+        try {
+            signature = Base64Url.decode(bytes, payloadEnd + 1, bytes.length);
+        } catch (IllegalArgumentException e) {
+            throw new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, "Malformed token"), e);
+        }
+        // constant time comparison, and before the payload is parsed at all
+        if (!MessageDigest.isEqual(signature, mac.sign(bytes, 0, payloadEnd))) {
+            throw new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, "Signed JWT rejected: Invalid signature"));
+        }
+
+        Map<String, Object> claims;
+        try {
+            claims = JwtJson.parseClaims(Base64Url.decode(bytes, PREFIX.length(), payloadEnd));
+            convertClaims(claims);
+        } catch (IllegalArgumentException e) {
+            throw new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, "Malformed payload"), e);
+        }
+        if (claims.isEmpty()) {
+            throw new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, "Malformed payload"));
+        }
+
+        Jwt jwt = new Jwt(token, (Instant) claims.get("iat"), (Instant) claims.get("exp"), HEADERS, claims);
+        OAuth2TokenValidatorResult result = jwtValidator.validate(jwt);
+        if (result.hasErrors()) {
+            Collection<OAuth2Error> errors = result.getErrors();
+            throw new JwtValidationException(validationMessage(errors), errors);
+        }
+        return jwt;
+    }
+
+    // the subset of MappedJwtClaimSetConverter our tokens can carry
+    private static void convertClaims(Map<String, Object> claims) {
+        for (Map.Entry<String, Object> claim : claims.entrySet()) {
+            if (JwtJson.isNumericDate(claim.getKey())) {
+                if (!(claim.getValue() instanceof Number seconds)) {
+                    throw new IllegalArgumentException("Invalid " + claim.getKey() + " claim");
+                }
+                claim.setValue(Instant.ofEpochSecond(seconds.longValue()));
+            }
+        }
+        if (claims.get("aud") instanceof String audience) {
+            claims.put("aud", List.of(audience));
+        }
+    }
+
+    private static String validationMessage(Collection<OAuth2Error> errors) {
+        for (OAuth2Error error : errors) {
+            if (error.getDescription() != null && !error.getDescription().isEmpty()) {
+                return String.format(DECODING_ERROR_MESSAGE_TEMPLATE, error.getDescription());
+            }
+        }
+        return "Unable to validate Jwt";
+    }
+}
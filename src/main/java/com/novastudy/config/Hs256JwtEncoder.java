@@ -0,0 +1,58 @@
+package com.novastudy.config;
+
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+// compact HS256 serialization straight into one byte array; other headers and claim types go to Nimbus
+public class Hs256JwtEncoder implements JwtEncoder {
+    // base64url of {"alg":"HS256"}, the header NimbusJwtEncoder writes for our secret key
+    static final String HEADER_SEGMENT = "eyJhbGciOiJIUzI1NiJ9";
+    private static final byte[] HEADER_BYTES = HEADER_SEGMENT.getBytes(StandardCharsets.US_ASCII);
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private final Hs256Mac mac;
+    private final JwtEncoder fallback;
+
+    public Hs256JwtEncoder(SecretKey secretKey, JwtEncoder fallback) {
+        this.mac = new Hs256Mac(secretKey);
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        JwsHeader header = parameters.getJwsHeader();
+        if (header == null || !isPlainHs256(header.getHeaders())) {
+            return fallback.encode(parameters);
+        }
+        JwtClaimsSet claims = parameters.getClaims();
+        byte[] payload = JwtJson.writeClaims(claims.getClaims());
+        if (payload == null) {
+            return fallback.encode(parameters);
+        }
+
+        int payloadLength = Base64Url.encodedLength(payload.length);
+        int signingLength = HEADER_BYTES.length + 1 + payloadLength;
+        byte[] token = new byte[signingLength + 1 + Base64Url.encodedLength(SIGNATURE_LENGTH)];
+        System.arraycopy(HEADER_BYTES, 0, token, 0, HEADER_BYTES.length);
+        token[HEADER_BYTES.length] = '.';
+        Base64Url.encode(payload, payload.length, token, HEADER_BYTES.length + 1);
+        token[signingLength] = '.';
+        byte[] signature = mac.sign(token, 0, signingLength);
+        Base64Url.encode(signature, signature.length, token, signingLength + 1);
+
+        Instant issuedAt = claims.getIssuedAt();
+        Instant expiresAt = claims.getExpiresAt();
+        return new Jwt(new String(token, StandardCharsets.ISO_8859_1), issuedAt, expiresAt,
+                header.getHeaders(), claims.getClaims());
+    }
+
+    private static boolean isPlainHs256(Map<String, Object> headers) {
+        Object algorithm = headers.get("alg");
+        return headers.size() == 1 && algorithm != null && MacAlgorithm.HS256.getName().equals(algorithm.toString());
+    }
+}
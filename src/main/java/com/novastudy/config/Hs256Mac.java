@@ -0,0 +1,42 @@
+package com.novastudy.config;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+
+// keyed HmacSHA256 instances, so signing skips Mac.getInstance and the key schedule
+final class Hs256Mac {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final Mac prototype;
+    private final ThreadLocal<Mac> platformThreadMacs = ThreadLocal.withInitial(this::copy);
+
+    Hs256Mac(SecretKey secretKey) {
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(secretKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    byte[] sign(byte[] input, int offset, int length) {
+        Mac mac = current();
+        mac.update(input, offset, length);
+        // doFinal also resets the instance for the next call on this thread
+        return mac.doFinal();
+    }
+
+    // virtual threads live for one request, a clone of the keyed prototype is cheaper than a thread local there
+    private Mac current() {
+        return Thread.currentThread().isVirtual() ? copy() : platformThreadMacs.get();
+    }
+
+    private Mac copy() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HmacSHA256 provider does not support clone", e);
+        }
+    }
+}
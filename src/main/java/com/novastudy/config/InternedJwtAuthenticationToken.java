@@ -0,0 +1,30 @@
+package com.novastudy.config;
+
+import com.novastudy.service.AuthoritySet;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.io.Serial;
+
+// hands out the shared authority set instead of the per-token copy AbstractAuthenticationToken would make
+public class InternedJwtAuthenticationToken extends JwtAuthenticationToken {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final AuthoritySet authorities;
+
+    public InternedJwtAuthenticationToken(Jwt jwt, AuthoritySet authorities) {
+        super(jwt, AuthorityUtils.NO_AUTHORITIES);
+        this.authorities = authorities;
+    }
+
+    @Override
+    public AuthoritySet getAuthorities() {
+        return authorities;
+    }
+
+    public boolean hasAuthority(String authority) {
+        return authorities.hasAuthority(authority);
+    }
+}
@@ -1,59 +1,120 @@
 package com.novastudy.config;
 
-import com.novastudy.utils.PublicEndpoints;
+import com.novastudy.enums.ErrorCode;
+import com.novastudy.utils.TokenDigestUtil;
 import com.novastudy.utils.TokenErrorResponseUtil;
 import com.novastudy.utils.TokenSecurityUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.Ordered;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
-public class JwtAuthenticationFilter extends OncePerRequestFilter implements Ordered {
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     private final JwtDecoder jwtDecoder;
     private final TokenSecurityUtil tokenSecurityUtil;
+    private final RouteClassifier routeClassifier;
+    private final CustomJwtAuthenticationConverter customJwtAuthenticationConverter;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+    private final Timer authenticatedTimer;
+    private final Timer missingTokenTimer;
+    private final Timer invalidTokenTimer;
+
+    public JwtAuthenticationFilter(JwtDecoder jwtDecoder,
+                                   TokenSecurityUtil tokenSecurityUtil,
+                                   RouteClassifier routeClassifier,
+                                   CustomJwtAuthenticationConverter customJwtAuthenticationConverter,
+                                   VerifiedTokenCache verifiedTokenCache,
+                                   MeterRegistry meterRegistry) {
+        this.jwtDecoder = jwtDecoder;
+        this.tokenSecurityUtil = tokenSecurityUtil;
+        this.routeClassifier = routeClassifier;
+        this.customJwtAuthenticationConverter = customJwtAuthenticationConverter;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.authenticatedTimer = filterTimer(meterRegistry, "authenticated");
+        this.missingTokenTimer = filterTimer(meterRegistry, "missing_token");
+        this.invalidTokenTimer = filterTimer(meterRegistry, "invalid_token");
+    }
+
+    // time spent in this filter only, excluding the rest of the chain
+    private static Timer filterTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("novastudy.filter.duration")
+                .tag("filter", "jwt_authentication")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
-        String path = request.getRequestURI();
-        if (PublicEndpoints.isPublic(path)) {
+        if (!routeClassifier.requiresAuthentication(request)) {
             filterChain.doFilter(request, response);
             return;
         }
+        long start = System.nanoTime();
+        String path = request.getRequestURI();
 
         // Get access token from Authorization header
         String accessToken = tokenSecurityUtil.extractTokenFromHeader(request);
         if (accessToken == null) {
             logger.warn("Missing or invalid Authorization header for path: {}", path);
-            TokenErrorResponseUtil.sendUnauthorizedResponse(response, "Missing or invalid access token", "ERR_INVALID_TOKEN");
+            TokenErrorResponseUtil.sendUnauthorizedResponse(request, response, ErrorCode.INVALID_TOKEN, "Missing or invalid access token");
+            missingTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             return;
         }
+
+        JwtAuthenticationToken authentication;
         try {
-            tokenSecurityUtil.validateAndSetAuthentication(accessToken, jwtDecoder);
-            logger.debug("Authenticated user: {} for path: {}", SecurityContextHolder.getContext().getAuthentication().getName(), path);
-            filterChain.doFilter(request, response);
+            authentication = authenticate(accessToken);
         } catch (JwtException e) {
-            logger.warn("Failed to validate JWT token: {} for path: {}. Error: {}", accessToken, path, e.getMessage());
-            TokenErrorResponseUtil.sendUnauthorizedResponse(response, "Invalid or expired access token", "ERR_INVALID_TOKEN");
+            logger.warn("Failed to validate JWT token for path: {}. Error: {}", path, e.getMessage());
+            TokenErrorResponseUtil.sendUnauthorizedResponse(request, response, ErrorCode.INVALID_TOKEN);
+            invalidTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return;
         }
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        securityContextRepository.saveContext(context, request, response);
+        request.setAttribute(TokenSecurityUtil.AUTHENTICATED_JWT_ATTRIBUTE, authentication.getToken());
+        logger.debug("Authenticated user: {} for path: {}", authentication.getName(), path);
+        authenticatedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        filterChain.doFilter(request, response);
     }
 
-    @Override
-    public int getOrder() {
-        return 75;
+    // decode and verify once per distinct token, later requests reuse the verified result
+    private JwtAuthenticationToken authenticate(String accessToken) {
+        byte[] tokenHash = TokenDigestUtil.sha256(accessToken);
+        InternedJwtAuthenticationToken authentication = verifiedTokenCache.get(tokenHash);
+        if (authentication != null) {
+            return authentication;
+        }
+
+        Jwt jwt = jwtDecoder.decode(accessToken);
+        authentication = customJwtAuthenticationConverter.convert(jwt);
+        verifiedTokenCache.put(tokenHash, authentication);
+        return authentication;
     }
 }
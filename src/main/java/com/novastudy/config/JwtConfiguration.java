@@ -3,15 +3,16 @@ package com.novastudy.config;
 import com.novastudy.utils.TokenSecurityUtil;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
 import org.springframework.security.oauth2.jwt.*;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
-import java.time.Duration;
 import java.util.Collections;
 
 @Configuration
@@ -29,28 +30,27 @@ public class JwtConfiguration {
 
     @Bean
     public JwtEncoder jwtEncoder() {
-        return new NimbusJwtEncoder(new ImmutableSecret<>(getSecretKey()));
+        JwtEncoder jwtEncoder = new NimbusJwtEncoder(new ImmutableSecret<>(getSecretKey()));
+        if (tokenProperties.getCodec() == TokenProperties.Codec.HS256) {
+            return new Hs256JwtEncoder(getSecretKey(), jwtEncoder);
+        }
+        return jwtEncoder;
     }
 
     @Bean
-    public JwtDecoder jwtDecoder() {
+    public JwtDecoder jwtDecoder(MeterRegistry meterRegistry) {
         NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(
                 getSecretKey()).macAlgorithm(TokenSecurityUtil.JWT_ALGORITHM).build();
 
         // set clock skew return 10
-        jwtDecoder.setJwtValidator(
-                new DelegatingOAuth2TokenValidator<>(
-                        Collections.singletonList(new JwtTimestampValidator(Duration.ofSeconds(10)))
-                )
+        OAuth2TokenValidator<Jwt> jwtValidator = new DelegatingOAuth2TokenValidator<>(
+                Collections.singletonList(new JwtTimestampValidator(TokenSecurityUtil.CLOCK_SKEW))
         );
+        jwtDecoder.setJwtValidator(jwtValidator);
 
-        return token -> {
-            try {
-                return jwtDecoder.decode(token);
-            } catch (Exception e) {
-                System.out.println(">>> JWT error: " + e.getMessage());
-                throw  e;
-            }
-        };
+        if (tokenProperties.getCodec() == TokenProperties.Codec.HS256) {
+            return new TimedJwtDecoder(new Hs256JwtDecoder(getSecretKey(), jwtValidator, jwtDecoder), meterRegistry);
+        }
+        return new TimedJwtDecoder(jwtDecoder, meterRegistry);
     }
 }
@@ -0,0 +1,402 @@
+package com.novastudy.config;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+
+// JSON for JWT claim sets: written straight to bytes, parsed from bytes in one pass
+final class JwtJson {
+    private static final int MAX_DEPTH = 8;
+    // claim names this application issues, reused instead of allocating a key per token
+    private static final String[] KNOWN_NAMES = {
+            "sub", "iat", "iat_ms", "exp", "nbf", "jti", "iss", "aud", "token_type",
+            "authorities", "ap", "apv", "sid", "rid", "uv"
+    };
+    private static final byte[][] KNOWN_NAME_BYTES = Arrays.stream(KNOWN_NAMES)
+            .map(name -> name.getBytes(StandardCharsets.US_ASCII))
+            .toArray(byte[][]::new);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private JwtJson() {
+    }
+
+    // null when a value has a type Nimbus would serialize differently
+    static byte[] writeClaims(Map<String, Object> claims) {
+        Writer writer = new Writer();
+        writer.write('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> claim : claims.entrySet()) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writer.writeString(claim.getKey());
+            writer.write(':');
+            if (claim.getValue() instanceof Instant instant && isNumericDate(claim.getKey())) {
+                // NumericDate in whole seconds, like NimbusJwtEncoder
+                writer.writeAscii(Long.toString(instant.getEpochSecond()));
+            } else if (!writer.writeValue(claim.getValue(), true)) {
+                return null;
+            }
+        }
+        writer.write('}');
+        return writer.toByteArray();
+    }
+
+    static boolean isNumericDate(String name) {
+        return "iat".equals(name) || "exp".equals(name) || "nbf".equals(name);
+    }
+
+    static Map<String, Object> parseClaims(byte[] json) {
+        Parser parser = new Parser(json);
+        parser.skipWhitespace();
+        if (parser.peek() != '{') {
+            throw new IllegalArgumentException("Claims must be a JSON object");
+        }
+        Map<String, Object> claims = parser.readObject(0);
+        parser.skipWhitespace();
+        if (parser.position != json.length) {
+            throw new IllegalArgumentException("Trailing data after claims");
+        }
+        return claims;
+    }
+
+    private static final class Writer {
+        private byte[] buffer = new byte[256];
+        private int length;
+
+        private void write(int b) {
+            ensure(1);
+            buffer[length++] = (byte) b;
+        }
+
+        private void writeAscii(String value) {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                buffer[length++] = (byte) value.charAt(i);
+            }
+        }
+
+        private boolean writeValue(Object value, boolean topLevel) {
+            if (value instanceof String string) {
+                writeString(string);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                writeAscii(value.toString());
+            } else if (value instanceof Boolean bool) {
+                writeAscii(bool ? "true" : "false");
+            } else if (value instanceof Collection<?> collection && topLevel) {
+                write('[');
+                boolean first = true;
+                for (Object element : collection) {
+                    if (!first) {
+                        write(',');
+                    }
+                    first = false;
+                    if (!writeValue(element, false)) {
+                        return false;
+                    }
+                }
+                write(']');
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        private void writeString(String value) {
+            ensure(value.length() + 2);
+            buffer[length++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    ensure(2);
+                    buffer[length++] = '\\';
+                    buffer[length++] = (byte) c;
+                } else if (c < 0x20) {
+                    ensure(6);
+                    buffer[length++] = '\\';
+                    buffer[length++] = 'u';
+                    buffer[length++] = '0';
+                    buffer[length++] = '0';
+                    buffer[length++] = HEX[c >>> 4];
+                    buffer[length++] = HEX[c & 0xF];
+                } else if (c < 0x80) {
+                    ensure(1);
+                    buffer[length++] = (byte) c;
+                } else {
+                    // rare outside ASCII, let the JDK encode the rest including surrogate pairs
+                    byte[] encoded = value.substring(i).getBytes(StandardCharsets.UTF_8);
+                    writeEscapedTail(encoded);
+                    break;
+                }
+            }
+            ensure(1);
+            buffer[length++] = '"';
+        }
+
+        private void writeEscapedTail(byte[] utf8) {
+            for (byte b : utf8) {
+                if (b == '"' || b == '\\') {
+                    write('\\');
+                    write(b);
+                } else if (b >= 0 && b < 0x20) {
+                    writeAscii("\\u00");
+                    write(HEX[b >>> 4]);
+                    write(HEX[b & 0xF]);
+                } else {
+                    write(b);
+                }
+            }
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, length);
+        }
+    }
+
+    private static final class Parser {
+        private final byte[] json;
+        private int position;
+
+        private Parser(byte[] json) {
+            this.json = json;
+        }
+
+        private int peek() {
+            return position < json.length ? json[position] : -1;
+        }
+
+        private void skipWhitespace() {
+            while (position < json.length) {
+                byte b = json[position];
+                if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                    return;
+                }
+                position++;
+            }
+        }
+
+        private void expect(char c) {
+            skipWhitespace();
+            if (peek() != c) {
+                throw new IllegalArgumentException("Expected '" + c + "' at " + position);
+            }
+            position++;
+        }
+
+        private Object readValue(int depth) {
+            skipWhitespace();
+            int b = peek();
+            return switch (b) {
+                case '{' -> readObject(depth + 1);
+                case '[' -> readArray(depth + 1);
+                case '"' -> readString(false);
+                case 't' -> readLiteral("true", Boolean.TRUE);
+                case 'f' -> readLiteral("false", Boolean.FALSE);
+                case 'n' -> readLiteral("null", null);
+                default -> {
+                    if (b == '-' || (b >= '0' && b <= '9')) {
+                        yield readNumber();
+                    }
+                    throw new IllegalArgumentException("Unexpected character at " + position);
+                }
+            };
+        }
+
+        private Map<String, Object> readObject(int depth) {
+            if (depth > MAX_DEPTH) {
+                throw new IllegalArgumentException("JSON nested too deeply");
+            }
+            expect('{');
+            Map<String, Object> object = new LinkedHashMap<>();
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw new IllegalArgumentException("Expected member name at " + position);
+                }
+                String name = readString(true);
+                expect(':');
+                // duplicate members are ambiguous, e.g. two exp claims
+                if (object.containsKey(name)) {
+                    throw new IllegalArgumentException("Duplicate member " + name);
+                }
+                object.put(name, readValue(depth));
+                skipWhitespace();
+                int b = peek();
+                position++;
+                if (b == '}') {
+                    return object;
+                }
+                if (b != ',') {
+                    throw new IllegalArgumentException("Expected ',' or '}' at " + (position - 1));
+                }
+            }
+        }
+
+        private List<Object> readArray(int depth) {
+            if (depth > MAX_DEPTH) {
+                throw new IllegalArgumentException("JSON nested too deeply");
+            }
+            expect('[');
+            List<Object> array = new ArrayList<>();
+            skipWhitespace();
+            if (peek() == ']') {
+                position++;
+                return array;
+            }
+            while (true) {
+                array.add(readValue(depth));
+                skipWhitespace();
+                int b = peek();
+                position++;
+                if (b == ']') {
+                    return array;
+                }
+                if (b != ',') {
+                    throw new IllegalArgumentException("Expected ',' or ']' at " + (position - 1));
+                }
+            }
+        }
+
+        private String readString(boolean memberName) {
+            int start = ++position;
+            while (position < json.length) {
+                byte b = json[position];
+                if (b == '"') {
+                    int length = position - start;
+                    position++;
+                    String known = memberName ? knownName(start, length) : null;
+                    return known != null ? known : new String(json, start, length, StandardCharsets.UTF_8);
+                }
+                if (b == '\\') {
+                    return readEscapedString(start);
+                }
+                if (b >= 0 && b < 0x20) {
+                    throw new IllegalArgumentException("Control character in string at " + position);
+                }
+                position++;
+            }
+            throw new IllegalArgumentException("Unterminated string");
+        }
+
+        private String readEscapedString(int start) {
+            StringBuilder builder = new StringBuilder();
+            int runStart = start;
+            while (position < json.length) {
+                byte b = json[position];
+                if (b == '"') {
+                    builder.append(new String(json, runStart, position - runStart, StandardCharsets.UTF_8));
+                    position++;
+                    return builder.toString();
+                }
+                if (b >= 0 && b < 0x20) {
+                    throw new IllegalArgumentException("Control character in string at " + position);
+                }
+                if (b != '\\') {
+                    position++;
+                    continue;
+                }
+                builder.append(new String(json, runStart, position - runStart, StandardCharsets.UTF_8));
+                if (position + 1 >= json.length) {
+                    throw new IllegalArgumentException("Unterminated escape");
+                }
+                byte escaped = json[position + 1];
+                position += 2;
+                switch (escaped) {
+                    case '"' -> builder.append('"');
+                    case '\\' -> builder.append('\\');
+                    case '/' -> builder.append('/');
+                    case 'b' -> builder.append('\b');
+                    case 'f' -> builder.append('\f');
+                    case 'n' -> builder.append('\n');
+                    case 'r' -> builder.append('\r');
+                    case 't' -> builder.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > json.length) {
+                            throw new IllegalArgumentException("Truncated unicode escape");
+                        }
+                        builder.append((char) Integer.parseInt(new String(json, position, 4, StandardCharsets.US_ASCII), 16));
+                        position += 4;
+                    }
+                    default -> throw new IllegalArgumentException("Invalid escape at " + (position - 1));
+                }
+                runStart = position;
+            }
+            throw new IllegalArgumentException("Unterminated string");
+        }
+
+        private String knownName(int start, int length) {
+            for (int i = 0; i < KNOWN_NAME_BYTES.length; i++) {
+                if (Arrays.equals(KNOWN_NAME_BYTES[i], 0, KNOWN_NAME_BYTES[i].length, json, start, start + length)) {
+                    return KNOWN_NAMES[i];
+                }
+            }
+            return null;
+        }
+
+        private Object readLiteral(String literal, Object value) {
+            for (int i = 0; i < literal.length(); i++) {
+                if (position + i >= json.length || json[position + i] != literal.charAt(i)) {
+                    throw new IllegalArgumentException("Invalid literal at " + position);
+                }
+            }
+            position += literal.length();
+            return value;
+        }
+
+        private Object readNumber() {
+            int start = position;
+            boolean negative = json[position] == '-';
+            if (negative) {
+                position++;
+            }
+            long value = 0;
+            boolean integral = true;
+            int digits = 0;
+            while (position < json.length) {
+                byte b = json[position];
+                if (b >= '0' && b <= '9') {
+                    // 18 digits always fit in a long
+                    if (digits < 18) {
+                        value = value * 10 + (b - '0');
+                    } else {
+                        integral = false;
+                    }
+                    digits++;
+                    position++;
+                } else if (b == '.' || b == 'e' || b == 'E' || b == '+' || b == '-') {
+                    integral = false;
+                    position++;
+                } else {
+                    break;
+                }
+            }
+            if (digits == 0) {
+                throw new IllegalArgumentException("Invalid number at " + start);
+            }
+            if (integral) {
+                return negative ? -value : value;
+            }
+            String text = new String(json, start, position - start, StandardCharsets.US_ASCII);
+            try {
+                // integers too long for the fast path still come back as Long when they fit
+                return text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0
+                        ? Long.parseLong(text)
+                        : Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number at " + start, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.novastudy.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "novastudy.password-hashing")
+@Getter
+@Setter
+public class PasswordHashingProperties {
+    // 0 means one thread per available core
+    private int threads = 0;
+    private int queueCapacity = 64;
+    private Duration maxWait = Duration.ofSeconds(5);
+}
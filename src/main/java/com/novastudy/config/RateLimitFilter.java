@@ -0,0 +1,249 @@
+package com.novastudy.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novastudy.enums.ErrorCode;
+import com.novastudy.exception.ErrorBodyCache;
+import com.novastudy.utils.RateLimiterSketch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// runs ahead of the security chain, so a rejected request costs no token decode, query or password hash
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimitProperties rateLimitProperties;
+    private final ObjectMapper mapper;
+    private final Map<String, RouteLimit> routeLimits = new HashMap<>();
+    // decoded and without ;params, the form Spring MVC matches handlers against
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public RateLimitFilter(RateLimitProperties rateLimitProperties, ObjectMapper mapper, MeterRegistry meterRegistry) {
+        this.rateLimitProperties = rateLimitProperties;
+        this.mapper = mapper;
+        rateLimitProperties.getRoutes().forEach((name, route) ->
+                routeLimits.put(normalize(route.getPath()), new RouteLimit(name, route, rateLimitProperties.getSketchWidth(), meterRegistry)));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimitProperties.isEnabled() || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RouteLimit routeLimit = routeLimits.get(normalize(urlPathHelper.getPathWithinApplication(request)));
+        if (routeLimit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (routeLimit.perIp != null) {
+            long wait = routeLimit.perIp.tryAcquire(request.getRemoteAddr());
+            if (wait > 0) {
+                routeLimit.ipRejected.increment();
+                reject(request, response, wait);
+                return;
+            }
+        }
+
+        if (routeLimit.perUsername != null && isJson(request)) {
+            byte[] head = request.getInputStream().readNBytes(rateLimitProperties.getMaxBodyBytes());
+            request = new BufferedHeadRequest(request, head);
+            String username = username(head);
+            if (username != null) {
+                long wait = routeLimit.perUsername.tryAcquire(username);
+                if (wait > 0) {
+                    routeLimit.usernameRejected.increment();
+                    reject(request, response, wait);
+                    return;
+                }
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        logger.debug("Rate limited {} {} for {}s", request.getMethod(), request.getRequestURI(), retryAfterSeconds);
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        ErrorBodyCache.write(response, ErrorCode.TOO_MANY_REQUESTS, ErrorCode.TOO_MANY_REQUESTS.getMessage(), request.getRequestURI());
+    }
+
+    // the top level username field, null when absent or cut off by the buffer limit
+    private String username(byte[] head) {
+        try (JsonParser parser = mapper.getFactory().createParser(head)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("username".equals(field)) {
+                    // the users table collation is case-insensitive, so Bob and BOB are the same account
+                    return value == JsonToken.VALUE_STRING ? parser.getText().strip().toLowerCase(Locale.ROOT) : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.regionMatches(true, 0, MediaType.APPLICATION_JSON_VALUE, 0,
+                MediaType.APPLICATION_JSON_VALUE.length());
+    }
+
+    // repeated and trailing slashes collapse, so every spelling of a route shares its limit
+    private static String normalize(String path) {
+        StringBuilder normalized = new StringBuilder(path.length() + 1);
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c != '/' || normalized.isEmpty() || normalized.charAt(normalized.length() - 1) != '/') {
+                normalized.append(c);
+            }
+        }
+        if (normalized.isEmpty() || normalized.charAt(0) != '/') {
+            normalized.insert(0, '/');
+        }
+        if (normalized.length() > 1 && normalized.charAt(normalized.length() - 1) == '/') {
+            normalized.setLength(normalized.length() - 1);
+        }
+        return normalized.toString();
+    }
+
+    private static final class RouteLimit {
+        private final RateLimiterSketch perIp;
+        private final RateLimiterSketch perUsername;
+        private final Counter ipRejected;
+        private final Counter usernameRejected;
+
+        private RouteLimit(String name, RateLimitProperties.Route route, int sketchWidth, MeterRegistry meterRegistry) {
+            this.perIp = sketch(route.getPerIp(), sketchWidth);
+            this.perUsername = sketch(route.getPerUsername(), sketchWidth);
+            this.ipRejected = rejectedCounter(meterRegistry, name, "ip");
+            this.usernameRejected = rejectedCounter(meterRegistry, name, "username");
+        }
+
+        private static RateLimiterSketch sketch(RateLimitProperties.Limit limit, int sketchWidth) {
+            return limit != null ? RateLimiterSketch.create(limit.getPermits(), limit.getPeriod(), sketchWidth) : null;
+        }
+
+        private static Counter rejectedCounter(MeterRegistry meterRegistry, String route, String key) {
+            return Counter.builder("novastudy.rate_limit.rejected")
+                    .tag("route", route)
+                    .tag("key", key)
+                    .register(meterRegistry);
+        }
+    }
+
+    // replays the bytes read for the username check, then the rest of the original body
+    private static final class BufferedHeadRequest extends HttpServletRequestWrapper {
+        private final byte[] head;
+        private ServletInputStream inputStream;
+
+        private BufferedHeadRequest(HttpServletRequest request, byte[] head) {
+            super(request);
+            this.head = head;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = replay(super.getInputStream());
+            }
+            return inputStream;
+        }
+
+        private ServletInputStream replay(ServletInputStream rest) {
+            ByteArrayInputStream buffered = new ByteArrayInputStream(head);
+            return new ServletInputStream() {
+                @Override
+                public int read() throws IOException {
+                    int b = buffered.read();
+                    return b >= 0 ? b : rest.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = buffered.read(b, off, len);
+                    return n > 0 || len == 0 ? n : rest.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return buffered.available() == 0 && rest.isFinished();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return buffered.available() > 0 || rest.isReady();
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    rest.setReadListener(new ReadListener() {
+                        @Override
+                        public void onDataAvailable() throws IOException {
+                            readListener.onDataAvailable();
+                        }
+
+                        @Override
+                        public void onAllDataRead() throws IOException {
+                            // the whole body may already be buffered, the listener still has to see it
+                            if (buffered.available() > 0) {
+                                readListener.onDataAvailable();
+                            }
+                            readListener.onAllDataRead();
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            readListener.onError(t);
+                        }
+                    });
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.novastudy.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "novastudy.rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // cells per sketch row, memory per limit is 2 * 8 bytes * width whatever the number of clients
+    private int sketchWidth = 16_384;
+    // how much of a request body is buffered to find the username, larger bodies are limited per ip only
+    private int maxBodyBytes = 4096;
+    // keyed by a route name used in metrics
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Route {
+        private String path;
+        private Limit perIp;
+        // read from the username field of the JSON body
+        private Limit perUsername;
+    }
+
+    @Getter
+    @Setter
+    public static class Limit {
+        // requests per period, all of which may arrive as one burst
+        private int permits;
+        private Duration period = Duration.ofMinutes(1);
+    }
+}
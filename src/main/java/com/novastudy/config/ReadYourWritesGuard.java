@@ -0,0 +1,46 @@
+package com.novastudy.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// remembers recently written keys so reads of them go to the primary until the replica has caught up
+@Component
+public class ReadYourWritesGuard {
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private final ReplicaDataSourceProperties replicaDataSourceProperties;
+    private final ConcurrentHashMap<String, Long> recentWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesGuard(ReplicaDataSourceProperties replicaDataSourceProperties) {
+        this.replicaDataSourceProperties = replicaDataSourceProperties;
+    }
+
+    public void markWritten(String key) {
+        long now = System.nanoTime();
+        recentWrites.put(key, now + replicaDataSourceProperties.getReadYourWritesWindow().toNanos());
+        recentWrites.values().removeIf(until -> until - now < 0);
+    }
+
+    // call inside a read-only transaction before its first query
+    public void routeToPrimaryIfRecentlyWritten(String key) {
+        Long until = recentWrites.get(key);
+        if (until == null || until - System.nanoTime() < 0
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                PRIMARY_FORCED.remove();
+            }
+        });
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get() != null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.novastudy.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "novastudy.datasource.replica")
+@Getter
+@Setter
+public class ReplicaDataSourceProperties {
+    // read/write splitting is enabled only when a replica url is set
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    // keep reading from the primary this long after a write, should exceed the replication lag
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
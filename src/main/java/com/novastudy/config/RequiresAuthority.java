@@ -0,0 +1,14 @@
+package com.novastudy.config;
+
+import java.lang.annotation.*;
+
+// checked by AuthorityInterceptor before the handler runs; on a controller it applies to every handler without its own
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresAuthority {
+    // any one of these authorities grants access, unless requireAll is set
+    String[] value();
+
+    boolean requireAll() default false;
+}
@@ -0,0 +1,16 @@
+package com.novastudy.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "novastudy.revocation")
+@Getter
+@Setter
+public class RevocationProperties {
+    private long expectedInsertions = 100_000;
+    private double falsePositiveProbability = 0.001;
+    private int maxEntries = 100_000;
+}
@@ -0,0 +1,119 @@
+package com.novastudy.config;
+
+import com.novastudy.enums.RouteAccess;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+public class RouteClassifier {
+    public static final String ROUTE_ACCESS_ATTRIBUTE = RouteClassifier.class.getName() + ".ROUTE_ACCESS";
+
+    private final Node publicRoutes = new Node();
+
+    public RouteClassifier(RouteProperties routeProperties) {
+        routeProperties.getPublicPaths().forEach(this::addPublicPath);
+    }
+
+    // classified once per request, later callers read the request attribute
+    public RouteAccess classify(HttpServletRequest request) {
+        Object cached = request.getAttribute(ROUTE_ACCESS_ATTRIBUTE);
+        if (cached instanceof RouteAccess routeAccess) {
+            return routeAccess;
+        }
+
+        RouteAccess routeAccess;
+        if (isPreflight(request)) {
+            routeAccess = RouteAccess.PREFLIGHT;
+        } else {
+            String path = request.getRequestURI();
+            int start = request.getContextPath().length();
+            routeAccess = isPublic(path, start) ? RouteAccess.PUBLIC : RouteAccess.AUTHENTICATED;
+        }
+        request.setAttribute(ROUTE_ACCESS_ATTRIBUTE, routeAccess);
+        return routeAccess;
+    }
+
+    public boolean requiresAuthentication(HttpServletRequest request) {
+        return classify(request) == RouteAccess.AUTHENTICATED;
+    }
+
+    public boolean isPublic(String path) {
+        return isPublic(path, 0);
+    }
+
+    private boolean isPublic(String path, int start) {
+        return matches(publicRoutes, path, start);
+    }
+
+    // an exact segment is tried before "*", and "*" is tried when the exact branch does not match
+    private static boolean matches(Node node, String path, int index) {
+        int length = path.length();
+        // skip empty segments, so trailing and repeated slashes do not matter
+        while (index < length && path.charAt(index) == '/') {
+            index++;
+        }
+        if (index >= length) {
+            return node.terminal || node.matchesRest;
+        }
+        if (node.matchesRest) {
+            return true;
+        }
+
+        int end = path.indexOf('/', index);
+        if (end < 0) {
+            end = length;
+        }
+        Node exact = node.children.get(path.substring(index, end));
+        if (exact != null && matches(exact, path, end)) {
+            return true;
+        }
+        return node.anySegment != null && matches(node.anySegment, path, end);
+    }
+
+    private void addPublicPath(String pattern) {
+        Node node = publicRoutes;
+        String[] segments = pattern.split("/");
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.equals("**")) {
+                for (int j = i + 1; j < segments.length; j++) {
+                    if (!segments[j].isEmpty()) {
+                        throw new IllegalArgumentException("\"**\" is only supported as the last segment: " + pattern);
+                    }
+                }
+                node.matchesRest = true;
+                return;
+            }
+            if (segment.equals("*")) {
+                if (node.anySegment == null) {
+                    node.anySegment = new Node();
+                }
+                node = node.anySegment;
+            } else {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        node.terminal = true;
+    }
+
+    private static boolean isPreflight(HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod())
+                && request.getHeader(HttpHeaders.ORIGIN) != null
+                && request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD) != null;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Node anySegment;
+        private boolean terminal;
+        private boolean matchesRest;
+    }
+}
@@ -0,0 +1,19 @@
+package com.novastudy.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "novastudy.routes")
+@Getter
+@Setter
+public class RouteProperties {
+    // exact paths, "*" matches one segment and a trailing "**" matches the rest of the path
+    private List<String> publicPaths = new ArrayList<>(List.of("/", "/auth/register", "/auth/login", "/auth/refresh-token",
+            "/livez", "/readyz", "/actuator/health", "/actuator/prometheus"));
+}
@@ -1,6 +1,7 @@
 package com.novastudy.config;
 
-import com.novastudy.utils.PublicEndpoints;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -11,32 +12,56 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfiguration {
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties passwordHashingProperties, MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingProperties, meterRegistry);
     }
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity httpSecurity,
                                            CustomAuthenticationEntryPoint customAuthenticationEntryPoint,
-                                           CustomJwtAuthenticationConverter customJwtAuthenticationConverter) throws Exception {
+                                           JwtAuthenticationFilter jwtAuthenticationFilter,
+                                           TokenBlacklistFilter tokenBlacklistFilter,
+                                           RouteClassifier routeClassifier) throws Exception {
+        // reads the classification tagged on the request by the auth filters
+        RequestMatcher unauthenticatedRoutes = request -> !routeClassifier.requiresAuthentication(request);
+
         httpSecurity
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(Customizer.withDefaults())
                 .authorizeHttpRequests(
                         auth -> auth
-                                .requestMatchers(PublicEndpoints.getPublicEndpoints()).permitAll()
+                                .requestMatchers(unauthenticatedRoutes).permitAll()
                                 .anyRequest().authenticated())
-                .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(jwt -> jwt.jwtAuthenticationConverter(customJwtAuthenticationConverter))
-                    .authenticationEntryPoint(customAuthenticationEntryPoint))  // error 401
+                // single authentication stage: decode once, then check revocation
+                .addFilterBefore(jwtAuthenticationFilter, AuthorizationFilter.class)
+                .addFilterAfter(tokenBlacklistFilter, JwtAuthenticationFilter.class)
+                .exceptionHandling(exception -> exception
+                        .authenticationEntryPoint(customAuthenticationEntryPoint))  // error 401
                 .formLogin(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
 
         return httpSecurity.build();
     }
+
+    // the auth filters only run inside the security filter chain, not as standalone servlet filters
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(JwtAuthenticationFilter filter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<TokenBlacklistFilter> tokenBlacklistFilterRegistration(TokenBlacklistFilter filter) {
+        FilterRegistrationBean<TokenBlacklistFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
 }
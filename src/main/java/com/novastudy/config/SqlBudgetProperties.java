@@ -0,0 +1,16 @@
+package com.novastudy.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "novastudy.sql-budget")
+@Getter
+@Setter
+public class SqlBudgetProperties {
+    private int maxStatementsPerRequest = 10;
+    // the same statement this many times in one request is reported as a likely N+1
+    private int repeatedStatementThreshold = 3;
+}
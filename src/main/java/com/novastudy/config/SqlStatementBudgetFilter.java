@@ -0,0 +1,84 @@
+package com.novastudy.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// wraps the whole request, security filters included, so every statement it causes is counted
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementBudgetFilter.class);
+    public static final String SQL_STATS_ATTRIBUTE = SqlStatementBudgetFilter.class.getName() + ".SQL_STATS";
+
+    private final SqlBudgetProperties sqlBudgetProperties;
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementBudgetFilter(SqlBudgetProperties sqlBudgetProperties, MeterRegistry meterRegistry) {
+        this.sqlBudgetProperties = sqlBudgetProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RequestSqlStats stats = RequestSqlStats.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestSqlStats.close();
+            request.setAttribute(SQL_STATS_ATTRIBUTE, stats);
+            report(request, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, RequestSqlStats stats) {
+        if (stats.getStatementCount() == 0) {
+            return;
+        }
+        String route = route(request);
+        DistributionSummary.builder("novastudy.sql.statements")
+                .tag("route", route)
+                .register(meterRegistry)
+                .record(stats.getStatementCount());
+        Timer.builder("novastudy.sql.execution")
+                .tag("route", route)
+                .register(meterRegistry)
+                .record(stats.getExecutionNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.getStatementCount() > sqlBudgetProperties.getMaxStatementsPerRequest()) {
+            Counter.builder("novastudy.sql.budget.exceeded")
+                    .tag("route", route)
+                    .register(meterRegistry)
+                    .increment();
+            logger.warn("Request {} {} ran {} SQL statements ({} ms), budget is {}",
+                    request.getMethod(), route, stats.getStatementCount(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getExecutionNanos()), sqlBudgetProperties.getMaxStatementsPerRequest());
+        }
+        stats.getCountsBySql().forEach((sql, count) -> {
+            if (count >= sqlBudgetProperties.getRepeatedStatementThreshold()) {
+                logger.warn("Possible N+1 on {} {}: statement ran {} times: {}", request.getMethod(), route, count, sql);
+            }
+        });
+    }
+
+    // the mapped pattern keeps the tag bounded, unmapped requests share one value
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNMAPPED";
+    }
+}
@@ -0,0 +1,15 @@
+package com.novastudy.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// counts every statement Hibernate prepares for the current request, the sql itself is left unchanged
+public class SqlStatementInspector implements StatementInspector {
+    @Override
+    public String inspect(String sql) {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.recordStatement(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,21 @@
+package com.novastudy.config;
+
+import org.hibernate.SessionEventListener;
+
+// created by Hibernate for every session, adds statement execution time to the current request
+public class SqlTimingSessionListener implements SessionEventListener {
+    private long executionStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.recordExecution(System.nanoTime() - executionStart);
+        }
+    }
+}
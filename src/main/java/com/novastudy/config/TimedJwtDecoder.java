@@ -0,0 +1,74 @@
+package com.novastudy.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.jwt.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// times every decode and counts failures by reason
+public class TimedJwtDecoder implements JwtDecoder {
+    private final JwtDecoder delegate;
+    private final MeterRegistry meterRegistry;
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Map<String, Counter> failureCounters = new ConcurrentHashMap<>();
+
+    public TimedJwtDecoder(JwtDecoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.successTimer = decodeTimer(meterRegistry, "success");
+        this.failureTimer = decodeTimer(meterRegistry, "failure");
+    }
+
+    private static Timer decodeTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("novastudy.jwt.decode")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long start = System.nanoTime();
+        try {
+            Jwt jwt = delegate.decode(token);
+            successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return jwt;
+        } catch (JwtException e) {
+            failureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            failureCounters.computeIfAbsent(reason(e), reason -> Counter.builder("novastudy.jwt.failures")
+                            .tag("reason", reason)
+                            .register(meterRegistry))
+                    .increment();
+            throw e;
+        }
+    }
+
+    private static String reason(JwtException e) {
+        if (e instanceof JwtValidationException validationException) {
+            for (OAuth2Error error : validationException.getErrors()) {
+                String description = error.getDescription();
+                if (description != null && description.contains("expired")) {
+                    return "expired";
+                }
+                if (description != null && description.contains("before")) {
+                    return "not_yet_valid";
+                }
+            }
+            return "invalid_claims";
+        }
+        String message = e.getMessage() != null ? e.getMessage() : "";
+        if (message.contains("signature")) {
+            return "bad_signature";
+        }
+        if (message.contains("Malformed") || message.contains("parse")) {
+            return "malformed";
+        }
+        return e instanceof BadJwtException ? "invalid" : "error";
+    }
+}
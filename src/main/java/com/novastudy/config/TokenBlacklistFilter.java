@@ -1,50 +1,96 @@
 package com.novastudy.config;
 
-import com.novastudy.repository.TokenBlacklistRepository;
-import com.novastudy.utils.PublicEndpoints;
+import com.novastudy.enums.ErrorCode;
+import com.novastudy.service.TokenRevocationCache;
+import com.novastudy.service.TokenWatermarkCache;
 import com.novastudy.utils.TokenErrorResponseUtil;
 import com.novastudy.utils.TokenSecurityUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.Ordered;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
-public class TokenBlacklistFilter extends OncePerRequestFilter implements Ordered {
+public class TokenBlacklistFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistFilter.class);
-    private final TokenBlacklistRepository tokenBlacklistRepository;
-    private final TokenSecurityUtil tokenSecurityUtil;
+    private final TokenRevocationCache tokenRevocationCache;
+    private final TokenWatermarkCache tokenWatermarkCache;
+    private final RouteClassifier routeClassifier;
+    private final Timer allowedTimer;
+    private final Timer revokedTimer;
+    private final Counter revokedByTokenIdCounter;
+    private final Counter revokedByWatermarkCounter;
+
+    public TokenBlacklistFilter(TokenRevocationCache tokenRevocationCache,
+                                TokenWatermarkCache tokenWatermarkCache,
+                                RouteClassifier routeClassifier,
+                                MeterRegistry meterRegistry) {
+        this.tokenRevocationCache = tokenRevocationCache;
+        this.tokenWatermarkCache = tokenWatermarkCache;
+        this.routeClassifier = routeClassifier;
+        this.allowedTimer = filterTimer(meterRegistry, "allowed");
+        this.revokedTimer = filterTimer(meterRegistry, "revoked");
+        this.revokedByTokenIdCounter = revokedCounter(meterRegistry, "token_id");
+        this.revokedByWatermarkCounter = revokedCounter(meterRegistry, "logout_all");
+    }
+
+    private static Timer filterTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("novastudy.filter.duration")
+                .tag("filter", "token_blacklist")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Counter revokedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("novastudy.auth.revoked_token_hits")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
-        String path = request.getRequestURI();
-        if (PublicEndpoints.isPublic(path)) {
+        if (!routeClassifier.requiresAuthentication(request)) {
             filterChain.doFilter(request, response);
             return;
         }
+        long start = System.nanoTime();
+        String path = request.getRequestURI();
 
-        String accessToken = tokenSecurityUtil.extractTokenFromHeader(request);
-        // check token in blacklist token
-        if (tokenBlacklistRepository.findByToken(accessToken).isPresent()) {
-            logger.warn("Access token is blacklisted: {}. Request path: {}", accessToken, path);
-            TokenErrorResponseUtil.sendUnauthorizedResponse(response, "Access token has been revoked", "ERR_TOKEN_REVOKED");
+        // decoded by JwtAuthenticationFilter, which runs first
+        Jwt jwt = (Jwt) request.getAttribute(TokenSecurityUtil.AUTHENTICATED_JWT_ATTRIBUTE);
+        if (jwt == null || jwt.getId() == null) {
+            TokenErrorResponseUtil.sendUnauthorizedResponse(request, response, ErrorCode.INVALID_TOKEN);
             return;
         }
 
-        filterChain.doFilter(request, response);
-    }
+        // check token id in blacklist and the user's revoked-before watermark
+        Counter revokedCounter = null;
+        if (tokenRevocationCache.isRevoked(jwt.getId())) {
+            revokedCounter = revokedByTokenIdCounter;
+        } else if (tokenWatermarkCache.isRevoked(jwt.getSubject(), TokenSecurityUtil.issuedAt(jwt))) {
+            revokedCounter = revokedByWatermarkCounter;
+        }
+        if (revokedCounter != null) {
+            revokedCounter.increment();
+            logger.warn("Access token is revoked: {} for user: {}. Request path: {}", jwt.getId(), jwt.getSubject(), path);
+            TokenErrorResponseUtil.sendUnauthorizedResponse(request, response, ErrorCode.TOKEN_REVOKED);
+            revokedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return;
+        }
 
-    @Override
-    public int getOrder() {
-        return 50;
+        allowedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        filterChain.doFilter(request, response);
     }
 }
@@ -0,0 +1,19 @@
+package com.novastudy.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "novastudy.token-cleanup")
+@Getter
+@Setter
+public class TokenCleanupProperties {
+    private String cron = "0 0 * * * *";
+    private int batchSize = 1000;
+    private Duration pauseBetweenBatches = Duration.ofMillis(100);
+    private int maxBatchesPerRun = 10_000;
+}
@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "novastudy.jwt")
 @Getter
@@ -13,4 +15,22 @@ public class TokenProperties {
     private String secret;
     private long accessTokenValidateSeconds;
     private long refreshTokenValidateSeconds;
+    private int verifiedTokenCacheSize = 10_000;
+    // permission index bitset instead of the authority name list
+    private boolean compactAuthorities = false;
+    // how long a refreshed access token is handed to further refreshes of the same refresh token
+    private Duration refreshReuseWindow = Duration.ofSeconds(2);
+    // a refresh waiting on a concurrent one for the same token gives up after this and refreshes on its own
+    private Duration refreshJoinTimeout = Duration.ofSeconds(5);
+    // refresh from the signed refresh token and the revoked session registry, without the refresh_tokens lookup
+    private boolean statelessRefresh = false;
+    // re-read revocations this far behind the newest one seen, for late commits and replica lag
+    private Duration revokedSessionPollOverlap = Duration.ofSeconds(30);
+    // hs256 signs and verifies our own tokens without the JOSE object model, other tokens still go through Nimbus
+    private Codec codec = Codec.NIMBUS;
+
+    public enum Codec {
+        NIMBUS,
+        HS256
+    }
 }
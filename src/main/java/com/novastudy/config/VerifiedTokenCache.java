@@ -0,0 +1,60 @@
+package com.novastudy.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.novastudy.service.AuthoritySet;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+// only the immutable Jwt and authority set are shared, every request gets its own authentication token
+@Component
+public class VerifiedTokenCache {
+    private final Cache<ByteBuffer, Entry> entries;
+
+    public VerifiedTokenCache(TokenProperties tokenProperties) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(tokenProperties.getVerifiedTokenCacheSize())
+                .expireAfter(new EntryExpiry())
+                .build();
+    }
+
+    public InternedJwtAuthenticationToken get(byte[] tokenHash) {
+        Entry entry = entries.getIfPresent(ByteBuffer.wrap(tokenHash));
+        return entry != null ? new InternedJwtAuthenticationToken(entry.jwt(), entry.authorities()) : null;
+    }
+
+    // an entry never outlives the token it was verified from
+    public void put(byte[] tokenHash, InternedJwtAuthenticationToken authentication) {
+        Instant expiresAt = authentication.getToken().getExpiresAt();
+        if (expiresAt == null) {
+            return;
+        }
+        entries.put(ByteBuffer.wrap(tokenHash),
+                new Entry(authentication.getToken(), authentication.getAuthorities(), expiresAt.toEpochMilli()));
+    }
+
+    private record Entry(Jwt jwt, AuthoritySet authorities, long expiresAtMillis) {
+    }
+
+    private static final class EntryExpiry implements Expiry<ByteBuffer, Entry> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Entry entry, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, entry.expiresAtMillis() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
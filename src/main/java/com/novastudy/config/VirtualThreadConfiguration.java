@@ -0,0 +1,50 @@
+package com.novastudy.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// active with spring.threads.virtual.enabled=true (see the "virtual" profile); Spring Boot then runs the
+// Tomcat connector, @Scheduled jobs and async task executors on virtual threads
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfiguration {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    // request threads are no longer a natural limit, so admission to the connection pool is bounded instead
+    @Bean
+    public static BeanPostProcessor connectionAdmissionPostProcessor(ObjectProvider<ConnectionAdmissionProperties> admissionProperties,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikariDataSource)) {
+                    return bean;
+                }
+                ConnectionAdmissionProperties properties = admissionProperties.getObject();
+                int maxConcurrent = properties.getMaxConcurrent() > 0
+                        ? properties.getMaxConcurrent()
+                        : poolSize(hikariDataSource);
+                logger.info("Limiting concurrent connection use on {} to {}", beanName, maxConcurrent);
+                return new AdmissionControlledDataSource(hikariDataSource, maxConcurrent,
+                        properties.getAcquireTimeout(), meterRegistry.getObject());
+            }
+        };
+    }
+
+    // the pool size is only defaulted once the pool starts, so apply Hikari's default here
+    private static int poolSize(HikariDataSource hikariDataSource) {
+        int maximumPoolSize = hikariDataSource.getMaximumPoolSize();
+        return maximumPoolSize > 0 ? maximumPoolSize : HIKARI_DEFAULT_POOL_SIZE;
+    }
+}
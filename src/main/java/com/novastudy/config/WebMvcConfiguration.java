@@ -0,0 +1,19 @@
+package com.novastudy.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfiguration implements WebMvcConfigurer {
+    private final AuthorityInterceptor authorityInterceptor;
+
+    public WebMvcConfiguration(AuthorityInterceptor authorityInterceptor) {
+        this.authorityInterceptor = authorityInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(authorityInterceptor);
+    }
+}
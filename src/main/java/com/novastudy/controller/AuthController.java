@@ -1,10 +1,13 @@
 package com.novastudy.controller;
 
+import com.novastudy.config.RequiresAuthority;
 import com.novastudy.config.TokenProperties;
 import com.novastudy.dto.request.LoginRequest;
 import com.novastudy.dto.request.RegisterAccountRequest;
 import com.novastudy.dto.response.*;
 import com.novastudy.exception.AppException;
+import com.novastudy.service.RefreshCoalescer;
+import com.novastudy.service.UserPrincipal;
 import com.novastudy.service.UserService;
 import com.novastudy.utils.TokenSecurityUtil;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,12 +18,13 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -33,6 +37,7 @@ public class AuthController {
     final AuthenticationManagerBuilder authenticationManagerBuilder;
     final TokenSecurityUtil tokenSecurityUtil;
     final UserService userService;
+    final RefreshCoalescer refreshCoalescer;
     private final TokenProperties tokenProperties;
 
     @PostMapping("/register")
@@ -57,7 +62,9 @@ public class AuthController {
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            LoginResponse.UserLoginResponse userLoginResponse = userService.findByUsername(authentication.getName());
+            // principal carries the user loaded during authentication
+            UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+            LoginResponse.UserLoginResponse userLoginResponse = userService.toUserLoginResponse(principal);
             LoginResponse loginResponse = new LoginResponse();
             loginResponse.setUserLoginResponse(userLoginResponse);
 
@@ -66,10 +73,9 @@ public class AuthController {
             loginResponse.setAccessToken(accessToken);
 
             // create refresh token
-            String refreshToken = this.tokenSecurityUtil.createRefreshToken(authentication.getName());
-            loginResponse.setRefreshToken(refreshToken);
             String deviceInfo = httpServletRequest.getHeader("User-Agent");
-            userService.updateRefreshTokenUser(refreshToken, authenticationToken.getName(), deviceInfo);
+            String refreshToken = userService.issueRefreshToken(principal, deviceInfo);
+            loginResponse.setRefreshToken(refreshToken);
 
             // set cookie
             ResponseCookie responseCookie = tokenSecurityUtil.createRefreshTokenCookie(refreshToken, tokenProperties.getRefreshTokenValidateSeconds());
@@ -90,7 +96,7 @@ public class AuthController {
     }
 
     @GetMapping("/my-account")
-    @PreAuthorize("hasAuthority('VIEW_PROFILE')")
+    @RequiresAuthority("VIEW_PROFILE")
     public ResponseEntity<SuccessResponse<InfoUserResponse>> getInfoAccount() {
         InfoUserResponse infoUserResponse = userService.getCurrentUserInfo();
 
@@ -113,7 +119,7 @@ public class AuthController {
         }
 
         // get new access token
-        RefreshAccessTokenResponse refreshTokenResponse = userService.refreshToken(refreshToken);
+        RefreshAccessTokenResponse refreshTokenResponse = refreshCoalescer.refresh(refreshToken);
 
         ResponseCookie responseCookie = tokenSecurityUtil.createRefreshTokenCookie(refreshToken, tokenProperties.getRefreshTokenValidateSeconds());
 
@@ -130,9 +136,8 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<SuccessResponse<Void>> logout(HttpServletRequest request) {
-        // Get access token from Authorization header
-        String accessToken = tokenSecurityUtil.extractTokenFromHeader(request);
+    public ResponseEntity<SuccessResponse<Void>> logout(HttpServletRequest request, @AuthenticationPrincipal Jwt accessToken) {
+        // Access token verified from the Authorization header
         if (accessToken == null) {
             throw AppException.unauthorized("Access token is missing");
         }
@@ -145,6 +150,7 @@ public class AuthController {
 
         // Invalidate both access token and refresh token
         userService.logout(refreshToken, accessToken);
+        refreshCoalescer.evict(refreshToken);
 
         // Clear the refresh token cookie
         ResponseCookie responseCookie = ResponseCookie
@@ -165,4 +171,26 @@ public class AuthController {
                 .header(HttpHeaders.SET_COOKIE, responseCookie.toString())
                 .body(response);
     }
+
+    @PostMapping("/logout-all")
+    public ResponseEntity<SuccessResponse<Void>> logoutAll() {
+        String username = TokenSecurityUtil.getCurrentUserLogin()
+                .orElseThrow(() -> AppException.unauthorized("User not authenticated"));
+
+        // Revoke every access and refresh token issued to the user so far
+        userService.logoutEverywhere(username);
+        refreshCoalescer.evictUser(username);
+
+        ResponseCookie responseCookie = tokenSecurityUtil.createRefreshTokenCookie(null, 0);
+
+        SuccessResponse<Void> response = SuccessResponse.<Void>builder()
+                .timestamp(LocalDateTime.now())
+                .status(200)
+                .message("Logout from all devices successful")
+                .build();
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, responseCookie.toString())
+                .body(response);
+    }
 }
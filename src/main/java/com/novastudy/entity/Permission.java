@@ -1,5 +1,6 @@
 package com.novastudy.entity;
 
+import com.novastudy.service.AuthorityChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -9,6 +10,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "permissions")
+@EntityListeners(AuthorityChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -7,8 +7,12 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "refresh_tokens", indexes = {
-    @Index(name = "idx_refresh_tokens_token", columnList = "token")
+@Table(name = "refresh_tokens", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_refresh_tokens_token_hash", columnNames = "token_hash")
+}, indexes = {
+    @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at"),
+    @Index(name = "idx_refresh_tokens_status", columnList = "status"),
+    @Index(name = "idx_refresh_tokens_revoked_at", columnList = "revoked_at")
 })
 @Getter
 @Setter
@@ -25,8 +29,8 @@ public class RefreshToken {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(name = "token", nullable = false, columnDefinition = "TEXT")
-    private String token;
+    @Column(name = "token_hash", nullable = false, columnDefinition = "BINARY(32)")
+    private byte[] tokenHash;
 
     @Column(name = "session_id", nullable = false)
     private String sessionId;
@@ -44,6 +48,10 @@ public class RefreshToken {
     @Column(name = "status", nullable = false)
     private TokenStatus status;
 
+    // set together with status INVALID, polled by RevokedSessionRegistry
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
     @PrePersist
     protected void onCreate() {
         this.issuedAt = LocalDateTime.now();
@@ -1,5 +1,6 @@
 package com.novastudy.entity;
 
+import com.novastudy.service.AuthorityChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -9,6 +10,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "roles")
+@EntityListeners(AuthorityChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -32,7 +34,12 @@ public class Role {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // also bumped when only the permission set changes, which is what makes @PostUpdate fire for grants
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "role_permissions",
             joinColumns = @JoinColumn(name = "role_id"),
@@ -6,7 +6,11 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "token_blacklist")
+@Table(name = "token_blacklist", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_token_blacklist_jti", columnNames = "jti")
+}, indexes = {
+    @Index(name = "idx_token_blacklist_expires_at", columnList = "expires_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,13 +21,13 @@ public class TokenBlackList {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "token", nullable = false)
-    private String token;
+    @Column(name = "jti", nullable = false, length = 32)
+    private String jti;
 
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
-    @Column(nullable = false)
+    @Column(name = "expires_at", nullable = false)
     private LocalDateTime expiresAt;
 
     @PrePersist
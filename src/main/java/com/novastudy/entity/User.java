@@ -1,5 +1,6 @@
 package com.novastudy.entity;
 
+import com.novastudy.service.AuthorityChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
@@ -11,6 +12,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(AuthorityChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -35,6 +37,15 @@ public class User {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // bumped by any change to the row or its roles, stateless refresh tokens carry it
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // epoch millisecond; tokens issued before it are revoked
+    @Column(name = "tokens_valid_after")
+    private Long tokensValidAfter;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "user_roles",
@@ -14,7 +14,11 @@ public enum ErrorCode {
     UNAUTHORIZED(HttpStatus.UNAUTHORIZED, "ERR_UNAUTHORIZED", "Authentication required"),
     FORBIDDEN(HttpStatus.FORBIDDEN, "ERR_FORBIDDEN", "Access denied"),
     CONFLICT(HttpStatus.CONFLICT, "ERR_CONFLICT", "Data conflict occurred"),
-    INVALID_CREDENTIALS(HttpStatus.UNAUTHORIZED, "ERR_INVALID_CREDENTIALS", "Invalid account");
+    INVALID_CREDENTIALS(HttpStatus.UNAUTHORIZED, "ERR_INVALID_CREDENTIALS", "Invalid account"),
+    INVALID_TOKEN(HttpStatus.UNAUTHORIZED, "ERR_INVALID_TOKEN", "Invalid or expired access token"),
+    TOKEN_REVOKED(HttpStatus.UNAUTHORIZED, "ERR_TOKEN_REVOKED", "Access token has been revoked"),
+    SERVICE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "ERR_SERVICE_UNAVAILABLE", "Service is busy, please retry later"),
+    TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "ERR_TOO_MANY_REQUESTS", "Too many requests, please retry later");
     ;
 
     HttpStatus httpStatus;
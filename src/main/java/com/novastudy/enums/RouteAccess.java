@@ -0,0 +1,7 @@
+package com.novastudy.enums;
+
+public enum RouteAccess {
+    PUBLIC,
+    PREFLIGHT,
+    AUTHENTICATED;
+}
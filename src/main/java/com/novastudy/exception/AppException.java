@@ -11,12 +11,12 @@ public class AppException {
         private final ErrorCode errorCode;
 
         public Exception(ErrorCode errorCode) {
-            super(errorCode.getMessage());
-            this.errorCode = errorCode;
+            this(errorCode, errorCode.getMessage());
         }
 
+        // client errors are expected control flow, only server errors pay for a stack trace
         public Exception(ErrorCode errorCode, String message) {
-            super(message);
+            super(message, null, true, errorCode.getHttpStatus().is5xxServerError());
             this.errorCode = errorCode;
         }
     }
@@ -70,4 +70,11 @@ public class AppException {
     public static Exception invalidCredentials(String message) {
         return new Exception(ErrorCode.INVALID_CREDENTIALS, message);
     }
+
+    public static Exception serviceUnavailable() {
+        return new Exception(ErrorCode.SERVICE_UNAVAILABLE);
+    }
+    public static Exception serviceUnavailable(String message) {
+        return new Exception(ErrorCode.SERVICE_UNAVAILABLE, message);
+    }
 }
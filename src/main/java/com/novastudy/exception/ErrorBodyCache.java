@@ -0,0 +1,191 @@
+package com.novastudy.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.novastudy.enums.ErrorCode;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// error bodies rendered once per error code and message, only the path and timestamp are spliced in per response.
+// same fields, order and timestamp format as ErrorResponse serialized by Jackson
+public final class ErrorBodyCache {
+    // messages are mostly literals, the bound only matters for messages built from exception text
+    private static final int MAX_CUSTOM_BODIES = 1024;
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TAIL = "\"}".getBytes(StandardCharsets.US_ASCII);
+
+    private static final Map<ErrorCode, Template> DEFAULT_BODIES = new EnumMap<>(ErrorCode.class);
+    private static final Map<ErrorCode, Map<String, Template>> CUSTOM_BODIES = new EnumMap<>(ErrorCode.class);
+    private static final AtomicInteger CUSTOM_BODY_COUNT = new AtomicInteger();
+
+    static {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            DEFAULT_BODIES.put(errorCode, new Template(errorCode, errorCode.getMessage()));
+            CUSTOM_BODIES.put(errorCode, new ConcurrentHashMap<>());
+        }
+    }
+
+    private ErrorBodyCache() {
+    }
+
+    public static void write(HttpServletResponse response, ErrorCode errorCode, String message, String path) throws IOException {
+        byte[] body = render(errorCode, message, path, LocalDateTime.now());
+        response.setStatus(errorCode.getHttpStatus().value());
+        response.setContentType("application/json;charset=UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    public static byte[] render(ErrorCode errorCode, String message, String path, LocalDateTime timestamp) {
+        Template template = template(errorCode, message);
+        byte[] quotedPath = quote(path);
+        int timestampLength = timestampLength(timestamp);
+        if (timestampLength < 0) {
+            // years outside 0000-9999 are left to the formatter
+            byte[] formatted = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp).getBytes(StandardCharsets.US_ASCII);
+            return concat(template.head, quotedPath, template.middle, formatted, TAIL);
+        }
+
+        byte[] body = new byte[template.head.length + quotedPath.length + template.middle.length + timestampLength + TAIL.length];
+        int offset = append(body, 0, template.head);
+        offset = append(body, offset, quotedPath);
+        offset = append(body, offset, template.middle);
+        offset = writeTimestamp(body, offset, timestamp);
+        append(body, offset, TAIL);
+        return body;
+    }
+
+    private static Template template(ErrorCode errorCode, String message) {
+        if (message == null) {
+            return new Template(errorCode, null);
+        }
+        if (message.equals(errorCode.getMessage())) {
+            return DEFAULT_BODIES.get(errorCode);
+        }
+        Map<String, Template> bodies = CUSTOM_BODIES.get(errorCode);
+        Template template = bodies.get(message);
+        if (template == null) {
+            template = new Template(errorCode, message);
+            // once full, further messages are rendered per response
+            if (CUSTOM_BODY_COUNT.get() < MAX_CUSTOM_BODIES && bodies.putIfAbsent(message, template) == null) {
+                CUSTOM_BODY_COUNT.incrementAndGet();
+            }
+        }
+        return template;
+    }
+
+    private static byte[] quote(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        // request paths are almost always printable ASCII with nothing to escape
+        boolean plain = true;
+        for (int i = 0; i < value.length() && plain; i++) {
+            char c = value.charAt(i);
+            plain = c >= 0x20 && c < 0x7F && c != '"' && c != '\\';
+        }
+        byte[] escaped = plain ? null : JsonStringEncoder.getInstance().quoteAsUTF8(value);
+        int length = plain ? value.length() : escaped.length;
+        byte[] quoted = new byte[length + 2];
+        quoted[0] = '"';
+        if (plain) {
+            for (int i = 0; i < length; i++) {
+                quoted[i + 1] = (byte) value.charAt(i);
+            }
+        } else {
+            System.arraycopy(escaped, 0, quoted, 1, length);
+        }
+        quoted[quoted.length - 1] = '"';
+        return quoted;
+    }
+
+    // ISO_LOCAL_DATE_TIME: seconds always, fraction without trailing zeros
+    private static int timestampLength(LocalDateTime timestamp) {
+        if (timestamp.getYear() < 0 || timestamp.getYear() > 9999) {
+            return -1;
+        }
+        int nano = timestamp.getNano();
+        if (nano == 0) {
+            return 19;
+        }
+        int digits = 9;
+        while (nano % 10 == 0) {
+            nano /= 10;
+            digits--;
+        }
+        return 20 + digits;
+    }
+
+    private static int writeTimestamp(byte[] target, int offset, LocalDateTime timestamp) {
+        offset = writeDigits(target, offset, timestamp.getYear(), 4);
+        target[offset++] = '-';
+        offset = writeDigits(target, offset, timestamp.getMonthValue(), 2);
+        target[offset++] = '-';
+        offset = writeDigits(target, offset, timestamp.getDayOfMonth(), 2);
+        target[offset++] = 'T';
+        offset = writeDigits(target, offset, timestamp.getHour(), 2);
+        target[offset++] = ':';
+        offset = writeDigits(target, offset, timestamp.getMinute(), 2);
+        target[offset++] = ':';
+        offset = writeDigits(target, offset, timestamp.getSecond(), 2);
+        int nano = timestamp.getNano();
+        if (nano == 0) {
+            return offset;
+        }
+        int digits = 9;
+        while (nano % 10 == 0) {
+            nano /= 10;
+            digits--;
+        }
+        target[offset++] = '.';
+        return writeDigits(target, offset, nano, digits);
+    }
+
+    private static int writeDigits(byte[] target, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            target[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + width;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] result = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            offset = append(result, offset, part);
+        }
+        return result;
+    }
+
+    private static int append(byte[] target, int offset, byte[] source) {
+        System.arraycopy(source, 0, target, offset, source.length);
+        return offset + source.length;
+    }
+
+    // {"status":401,"message":"...","path":  <path>  ,"errorCode":"...","timestamp":"  <timestamp>  "}
+    private static final class Template {
+        private final byte[] head;
+        private final byte[] middle;
+
+        private Template(ErrorCode errorCode, String message) {
+            this.head = concat(ascii("{\"status\":" + errorCode.getHttpStatus().value() + ",\"message\":"), quote(message), ascii(",\"path\":"));
+            this.middle = concat(ascii(",\"errorCode\":"), quote(errorCode.getErrorCode()), ascii(",\"timestamp\":\""));
+        }
+
+        private static byte[] ascii(String value) {
+            return value.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.novastudy.exception;
 
 import com.novastudy.enums.ErrorCode;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
@@ -10,7 +11,9 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.stream.Collectors;
 
@@ -28,12 +31,10 @@ public class GlobalExceptionHandler {
                 .build();
     }
 
-    //custom exception
+    //custom exception, written from pre-rendered bodies
     @ExceptionHandler(AppException.Exception.class)
-    public ResponseEntity<ErrorResponse> handleBaseException(AppException.Exception exception, HttpServletRequest request) {
-        ErrorCode code = exception.getErrorCode();
-        ErrorResponse response = createErrorResponse(code, exception.getMessage(), request.getRequestURI());
-        return new ResponseEntity<>(response, code.getHttpStatus());
+    public void handleBaseException(AppException.Exception exception, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorBodyCache.write(response, exception.getErrorCode(), exception.getMessage(), request.getRequestURI());
     }
 
     // MethodArgumentNotValidException: blank field LoginRequest
@@ -49,9 +50,14 @@ public class GlobalExceptionHandler {
 
     // Authentication exception
     @ExceptionHandler(AuthenticationException.class)
-    public ResponseEntity<ErrorResponse> handleAuthenticationException(org.springframework.security.core.AuthenticationException exception, HttpServletRequest request) {
-        ErrorResponse response = createErrorResponse(ErrorCode.INVALID_CREDENTIALS, ErrorCode.INVALID_CREDENTIALS.getMessage(), request.getRequestURI());
-        return new ResponseEntity<>(response, ErrorCode.INVALID_CREDENTIALS.getHttpStatus());
+    public void handleAuthenticationException(org.springframework.security.core.AuthenticationException exception, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorBodyCache.write(response, ErrorCode.INVALID_CREDENTIALS, ErrorCode.INVALID_CREDENTIALS.getMessage(), request.getRequestURI());
+    }
+
+    // no handler for the path, e.g. /actuator/* asked on the application port instead of the management port
+    @ExceptionHandler(NoResourceFoundException.class)
+    public void handleNoResourceFoundException(NoResourceFoundException exception, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorBodyCache.write(response, ErrorCode.RESOURCE_NOT_FOUND, ErrorCode.RESOURCE_NOT_FOUND.getMessage(), request.getRequestURI());
     }
 
     //handler all exception
@@ -1,12 +1,57 @@
 package com.novastudy.repository;
 
 import com.novastudy.entity.RefreshToken;
+import com.novastudy.enums.TokenStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
-}
\ No newline at end of file
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    @EntityGraph(attributePaths = {"user", "user.roles"})
+    Optional<RefreshToken> findWithUserByTokenHash(byte[] tokenHash);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.status = :status, r.revokedAt = :revokedAt " +
+            "WHERE r.status <> :status AND r.user.id IN (SELECT u.id FROM User u WHERE u.username = :username)")
+    int updateStatusByUsername(@Param("username") String username, @Param("status") TokenStatus status,
+                               @Param("revokedAt") LocalDateTime revokedAt);
+
+    // own transaction so it can be called from read-only ones and always reaches the primary
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.status = :status WHERE r.id = :id")
+    int updateStatusById(@Param("id") Long id, @Param("status") TokenStatus status);
+
+    @Query("SELECT r.id FROM RefreshToken r WHERE r.expiresAt < :now ORDER BY r.id")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
+
+    @Query("SELECT r.id FROM RefreshToken r WHERE r.status = :status ORDER BY r.id")
+    List<Long> findIdsByStatus(@Param("status") TokenStatus status, Limit limit);
+
+    @Query("SELECT MIN(r.expiresAt) FROM RefreshToken r")
+    LocalDateTime findOldestExpiresAt();
+
+    @Query("SELECT r.sessionId AS sessionId, r.revokedAt AS revokedAt, r.expiresAt AS expiresAt FROM RefreshToken r " +
+            "WHERE r.revokedAt > :since AND r.expiresAt > :now ORDER BY r.revokedAt")
+    List<RevokedSession> findRevokedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    interface RevokedSession {
+        String getSessionId();
+        LocalDateTime getRevokedAt();
+        LocalDateTime getExpiresAt();
+    }
+}
@@ -1,19 +1,33 @@
 package com.novastudy.repository;
 
 import com.novastudy.entity.TokenBlackList;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TokenBlacklistRepository extends JpaRepository<TokenBlackList, Long> {
-    Optional<TokenBlackList> findByToken(String token);
+    Optional<TokenBlackList> findByJti(String jti);
 
+    // a concurrent logout with the same access token already revoked it, the duplicate is skipped instead of failing
     @Modifying
-    @Query("DELETE FROM TokenBlackList t WHERE t.expiresAt < :now")
-    int deleteExpiredTokens(LocalDateTime now);
+    @Query(value = "INSERT INTO token_blacklist (jti, created_at, expires_at) VALUES (:jti, :createdAt, :expiresAt) "
+            + "ON DUPLICATE KEY UPDATE jti = jti", nativeQuery = true)
+    void insertIfAbsent(@Param("jti") String jti, @Param("createdAt") LocalDateTime createdAt,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+
+    List<TokenBlackList> findAllByExpiresAtAfter(LocalDateTime now);
+
+    @Query("SELECT t.id FROM TokenBlackList t WHERE t.expiresAt < :now ORDER BY t.id")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
+
+    @Query("SELECT MIN(t.expiresAt) FROM TokenBlackList t")
+    LocalDateTime findOldestExpiresAt();
 }
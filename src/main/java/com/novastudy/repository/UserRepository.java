@@ -1,13 +1,49 @@
 package com.novastudy.repository;
 
 import com.novastudy.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByUsername(String username);
+
+    // user and roles in one query, permission names come from the authority snapshot
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    boolean existsByUsername(String username);
+    boolean existsByEmail(String email);
+
+    List<TokenWatermark> findAllByTokensValidAfterGreaterThan(Long epochMilli);
+
+    @Query("SELECT u.username AS username, u.version AS version, u.updatedAt AS updatedAt FROM User u " +
+            "WHERE u.updatedAt > :since ORDER BY u.updatedAt")
+    List<ChangedUser> findChangedSince(@Param("since") LocalDateTime since);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.tokensValidAfter = :epochMilli WHERE u.username = :username")
+    int updateTokensValidAfter(@Param("username") String username, @Param("epochMilli") long epochMilli);
+
+    interface ChangedUser {
+        String getUsername();
+        Long getVersion();
+        LocalDateTime getUpdatedAt();
+    }
+
+    interface TokenWatermark {
+        String getUsername();
+        Long getTokensValidAfter();
+    }
 }
@@ -0,0 +1,55 @@
+package com.novastudy.service;
+
+import com.novastudy.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+// registered on Role and Permission, drops the authority snapshot when either changes, and on User, where it records
+// the new row version for stateless refresh.
+// the callbacks run at flush, so inside a transaction this only happens after commit; the snapshot dropped earlier
+// would let a concurrent reload cache the rows as they were before the change
+@Component
+public class AuthorityChangeListener {
+    private final ObjectProvider<AuthoritySnapshotCache> authoritySnapshotCache;
+    private final ObjectProvider<UserVersionRegistry> userVersionRegistry;
+
+    public AuthorityChangeListener(ObjectProvider<AuthoritySnapshotCache> authoritySnapshotCache,
+                                   ObjectProvider<UserVersionRegistry> userVersionRegistry) {
+        this.authoritySnapshotCache = authoritySnapshotCache;
+        this.userVersionRegistry = userVersionRegistry;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof User user) {
+            String username = user.getUsername();
+            long version = user.getVersion();
+            LocalDateTime updatedAt = user.getUpdatedAt();
+            afterCommit(() -> userVersionRegistry.ifAvailable(registry -> registry.record(username, version, updatedAt)));
+        } else {
+            afterCommit(() -> authoritySnapshotCache.ifAvailable(AuthoritySnapshotCache::invalidate));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package com.novastudy.service;
+
+import com.novastudy.config.TokenProperties;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+// writes and reads the authorities of an access token, either as a name list or as a permission index bitset
+@Component
+public class AuthorityClaimCodec {
+    public static final String AUTHORITIES_CLAIM = "authorities";
+    public static final String AUTHORITY_BITS_CLAIM = "ap";
+    public static final String AUTHORITY_INDEX_VERSION_CLAIM = "apv";
+
+    private final AuthoritySnapshotCache authoritySnapshotCache;
+    private final AuthorityRegistry authorityRegistry;
+    private final TokenProperties tokenProperties;
+
+    public AuthorityClaimCodec(AuthoritySnapshotCache authoritySnapshotCache,
+                               AuthorityRegistry authorityRegistry,
+                               TokenProperties tokenProperties) {
+        this.authoritySnapshotCache = authoritySnapshotCache;
+        this.authorityRegistry = authorityRegistry;
+        this.tokenProperties = tokenProperties;
+    }
+
+    public void addClaims(JwtClaimsSet.Builder claims, Set<String> authorities) {
+        if (tokenProperties.isCompactAuthorities()) {
+            PermissionIndex index = authoritySnapshotCache.getPermissionIndex();
+            // authorities outside the index keep the readable form
+            if (index.containsAll(authorities)) {
+                claims.claim(AUTHORITY_BITS_CLAIM, index.encode(authorities))
+                        .claim(AUTHORITY_INDEX_VERSION_CLAIM, Long.toHexString(index.getVersion()));
+                return;
+            }
+        }
+        claims.claim(AUTHORITIES_CLAIM, authorities);
+    }
+
+    // tokens in either form are accepted whatever the issuing mode, so the setting can change during a rollout
+    public AuthoritySet decode(Jwt jwt) {
+        String bits = jwt.getClaimAsString(AUTHORITY_BITS_CLAIM);
+        if (bits != null) {
+            return decodeBits(bits, jwt.getClaimAsString(AUTHORITY_INDEX_VERSION_CLAIM));
+        }
+
+        Object authorities = jwt.getClaim(AUTHORITIES_CLAIM);
+        if (authorities == null) {
+            return authorityRegistry.intern(Set.of());
+        }
+        // the raw claim list is the registry key, getClaimAsStringList would copy it on every call
+        if (!(authorities instanceof List<?> claim)) {
+            throw new BadJwtException("Invalid JWT token: authorities must be a list");
+        }
+        try {
+            return authorityRegistry.intern(claim);
+        } catch (IllegalArgumentException e) {
+            throw new BadJwtException("Invalid JWT token: authorities must be strings");
+        }
+    }
+
+    private AuthoritySet decodeBits(String bits, String version) {
+        PermissionIndex index;
+        try {
+            index = version != null ? authoritySnapshotCache.findPermissionIndex(Long.parseUnsignedLong(version, 16)) : null;
+        } catch (NumberFormatException e) {
+            index = null;
+        }
+        if (index == null) {
+            throw new BadJwtException("Invalid JWT token: unknown permission index version");
+        }
+        try {
+            return authorityRegistry.intern(index.decode(bits));
+        } catch (IllegalArgumentException e) {
+            throw new BadJwtException("Invalid JWT token: malformed authority bitset");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.novastudy.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// one AuthoritySet per distinct authority combination; the user base only has a handful of them
+@Component
+public class AuthorityRegistry {
+    private static final int MAX_ENTRIES = 4096;
+
+    private final ConcurrentHashMap<Set<String>, AuthoritySet> byNames = new ConcurrentHashMap<>();
+    // claim lists as they arrive, so a hit needs no copy; the same names in another order get their own key
+    private final ConcurrentHashMap<List<?>, AuthoritySet> byClaim = new ConcurrentHashMap<>();
+
+    public AuthorityRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder("novastudy.authority.registry.size", byNames, Map::size)
+                .register(meterRegistry);
+    }
+
+    public AuthoritySet intern(Set<String> names) {
+        AuthoritySet authorities = byNames.get(names);
+        return authorities != null ? authorities : register(new ArrayList<>(names));
+    }
+
+    // raw claim value from a decoded token, expected to be a list of strings
+    public AuthoritySet intern(List<?> claim) {
+        AuthoritySet authorities = byClaim.get(claim);
+        if (authorities != null) {
+            return authorities;
+        }
+
+        List<String> names = new ArrayList<>(claim.size());
+        for (Object name : claim) {
+            if (!(name instanceof String authority)) {
+                throw new IllegalArgumentException("Authority must be a string");
+            }
+            names.add(authority);
+        }
+        authorities = register(names);
+        if (byClaim.size() < MAX_ENTRIES) {
+            byClaim.putIfAbsent(List.copyOf(names), authorities);
+        }
+        return authorities;
+    }
+
+    private AuthoritySet register(List<String> names) {
+        AuthoritySet authorities = new AuthoritySet(names.stream().distinct().toList());
+        if (byNames.size() >= MAX_ENTRIES) {
+            return authorities;
+        }
+        AuthoritySet existing = byNames.putIfAbsent(authorities.names(), authorities);
+        return existing != null ? existing : authorities;
+    }
+}
@@ -0,0 +1,50 @@
+package com.novastudy.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+// immutable authorities with a hashed name lookup, shared by every token with the same combination
+public final class AuthoritySet extends AbstractSet<GrantedAuthority> implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Set<String> names;
+    private final List<GrantedAuthority> authorities;
+
+    AuthoritySet(List<String> orderedNames) {
+        this.names = Set.copyOf(orderedNames);
+        this.authorities = orderedNames.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    public boolean hasAuthority(String authority) {
+        return names.contains(authority);
+    }
+
+    public Set<String> names() {
+        return names;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof GrantedAuthority authority && names.contains(authority.getAuthority());
+    }
+
+    @Override
+    public Iterator<GrantedAuthority> iterator() {
+        return authorities.iterator();
+    }
+
+    @Override
+    public int size() {
+        return authorities.size();
+    }
+}
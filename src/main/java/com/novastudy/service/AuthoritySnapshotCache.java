@@ -0,0 +1,213 @@
+package com.novastudy.service;
+
+import com.novastudy.entity.Permission;
+import com.novastudy.entity.Role;
+import com.novastudy.entity.User;
+import com.novastudy.repository.RoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+@Component
+public class AuthoritySnapshotCache {
+    private static final Logger logger = LoggerFactory.getLogger(AuthoritySnapshotCache.class);
+    private static final int MAX_UNKNOWN_INDEX_VERSIONS = 1024;
+
+    private final RoleRepository roleRepository;
+    // a lock rather than synchronized so virtual threads are not pinned during the query
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+    // tokens issued just before an index change still carry the previous version
+    private volatile PermissionIndex previousPermissionIndex;
+    // the snapshot dropped by invalidate, compared against on the next load
+    private volatile Snapshot invalidatedSnapshot;
+    // a load that overlaps an invalidate may have read the rows from before the change, it is not kept
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AuthoritySnapshotCache(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    public Set<String> resolve(User user) {
+        Set<Role> roles = user.getRoles();
+        if (roles.size() == 1) {
+            return resolve(Set.of(roles.iterator().next().getId()));
+        }
+        return resolve(roles.stream().map(Role::getId).collect(Collectors.toUnmodifiableSet()));
+    }
+
+    // role name plus permission names for every role in the set
+    public Set<String> resolve(Set<Long> roleIds) {
+        Snapshot current = currentSnapshot();
+        Set<String> authorities = current.authoritiesByRoleSet().get(roleIds);
+        if (authorities != null) {
+            return authorities;
+        }
+        if (!current.authoritiesByRole().keySet().containsAll(roleIds)) {
+            // a role was created after the snapshot was taken
+            current = reload(current);
+        }
+
+        Set<String> merged = new HashSet<>();
+        for (Long roleId : roleIds) {
+            merged.addAll(current.authoritiesByRole().getOrDefault(roleId, Set.of()));
+        }
+        Set<String> immutable = Set.copyOf(merged);
+        current.authoritiesByRoleSet().putIfAbsent(Set.copyOf(roleIds), immutable);
+        return immutable;
+    }
+
+    // content fingerprint of all roles and permissions, identical on every instance
+    public long getVersion() {
+        return currentSnapshot().version();
+    }
+
+    public PermissionIndex getPermissionIndex() {
+        return currentSnapshot().permissionIndex();
+    }
+
+    // null when the version is neither current nor previous, even after a reload
+    public PermissionIndex findPermissionIndex(long version) {
+        Snapshot current = currentSnapshot();
+        PermissionIndex index = matching(current, version);
+        if (index != null || current.unknownIndexVersions().contains(version)) {
+            return index;
+        }
+        reloadLock.lock();
+        try {
+            // callers queued behind the lock with the same version reuse the reload of the first one
+            Snapshot latest = snapshot;
+            if (latest != null && (matching(latest, version) != null || latest.unknownIndexVersions().contains(version))) {
+                return matching(latest, version);
+            }
+            if (latest != null && latest.unknownIndexVersions().size() >= MAX_UNKNOWN_INDEX_VERSIONS) {
+                return null;
+            }
+            // another instance may have loaded a newer index first
+            Snapshot reloaded = doReload(latest);
+            index = matching(reloaded, version);
+            if (index == null) {
+                // not asked again until the snapshot changes
+                reloaded.unknownIndexVersions().add(version);
+            }
+            return index;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private PermissionIndex matching(Snapshot current, long version) {
+        if (current.permissionIndex().getVersion() == version) {
+            return current.permissionIndex();
+        }
+        PermissionIndex previous = previousPermissionIndex;
+        return previous != null && previous.getVersion() == version ? previous : null;
+    }
+
+    // previous index is only rotated by the load that follows, and only if the index version changed
+    public void invalidate() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            invalidatedSnapshot = current;
+        }
+        invalidations.incrementAndGet();
+        snapshot = null;
+    }
+
+    @Scheduled(fixedDelayString = "${novastudy.authority-cache.refresh-interval:PT5M}")
+    public void refresh() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            reload(current);
+        }
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload(null);
+    }
+
+    private Snapshot reload(Snapshot stale) {
+        reloadLock.lock();
+        try {
+            return doReload(stale);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private Snapshot doReload(Snapshot stale) {
+        Snapshot current = snapshot;
+        if (current != stale && current != null) {
+            return current;
+        }
+
+        long invalidationsAtStart = invalidations.get();
+        Map<Long, Set<String>> authoritiesByRole = new HashMap<>();
+        TreeMap<Long, String> roleNames = new TreeMap<>();
+        TreeMap<Long, String> permissionNames = new TreeMap<>();
+        for (Role role : roleRepository.findAllWithPermissions()) {
+            Set<String> authorities = new HashSet<>();
+            authorities.add(role.getName());
+            roleNames.put(role.getId(), role.getName());
+            for (Permission permission : role.getPermissions()) {
+                authorities.add(permission.getName());
+                permissionNames.put(permission.getId(), permission.getName());
+            }
+            authoritiesByRole.put(role.getId(), Set.copyOf(authorities));
+        }
+        long version = fingerprint(authoritiesByRole);
+        Snapshot previous = stale != null ? stale : invalidatedSnapshot;
+        invalidatedSnapshot = null;
+
+        // keep the resolved role sets when nothing changed
+        if (previous != null && previous.version() == version) {
+            return publish(previous, invalidationsAtStart);
+        }
+        // roles by id then permissions by id, so new rows usually append to the index
+        LinkedHashSet<String> indexedNames = new LinkedHashSet<>(roleNames.values());
+        indexedNames.addAll(permissionNames.values());
+        PermissionIndex permissionIndex = new PermissionIndex(new ArrayList<>(indexedNames));
+        if (previous != null && previous.permissionIndex().getVersion() != permissionIndex.getVersion()) {
+            previousPermissionIndex = previous.permissionIndex();
+        }
+
+        Snapshot loaded = new Snapshot(version, Map.copyOf(authoritiesByRole), new ConcurrentHashMap<>(), permissionIndex,
+                ConcurrentHashMap.newKeySet());
+        logger.info("Loaded authority snapshot for {} roles, version {}", authoritiesByRole.size(), version);
+        return publish(loaded, invalidationsAtStart);
+    }
+
+    private Snapshot publish(Snapshot loaded, long invalidationsAtStart) {
+        snapshot = loaded;
+        if (invalidations.get() != invalidationsAtStart) {
+            // an invalidate overlapped the query, the next caller loads again
+            snapshot = null;
+        }
+        return loaded;
+    }
+
+    private static long fingerprint(Map<Long, Set<String>> authoritiesByRole) {
+        CRC32 crc = new CRC32();
+        new TreeMap<>(authoritiesByRole).forEach((roleId, authorities) -> {
+            crc.update((roleId + "=" + new TreeSet<>(authorities) + ";").getBytes(StandardCharsets.UTF_8));
+        });
+        return crc.getValue();
+    }
+
+    private record Snapshot(long version,
+                            Map<Long, Set<String>> authoritiesByRole,
+                            ConcurrentHashMap<Set<Long>, Set<String>> authoritiesByRoleSet,
+                            PermissionIndex permissionIndex,
+                            Set<Long> unknownIndexVersions) {
+    }
+}
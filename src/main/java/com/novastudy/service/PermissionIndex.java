@@ -0,0 +1,85 @@
+package com.novastudy.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+// bit position per authority name, identical on every instance that reads the same roles and permissions
+public class PermissionIndex {
+    private static final int MAX_CACHED_COMBINATIONS = 4096;
+    private static final Base64.Encoder BITS_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BITS_DECODER = Base64.getUrlDecoder();
+
+    private final long version;
+    private final String[] names;
+    private final Map<String, Integer> positions;
+    // distinct bitsets are few, each decodes once into a shared immutable list
+    private final ConcurrentHashMap<String, List<String>> decoded = new ConcurrentHashMap<>();
+
+    PermissionIndex(List<String> orderedNames) {
+        this.names = orderedNames.toArray(String[]::new);
+        Map<String, Integer> positionsByName = new HashMap<>();
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < names.length; i++) {
+            positionsByName.put(names[i], i);
+            crc.update((names[i] + ";").getBytes(StandardCharsets.UTF_8));
+        }
+        this.positions = Map.copyOf(positionsByName);
+        this.version = crc.getValue();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean containsAll(Collection<String> authorities) {
+        return positions.keySet().containsAll(authorities);
+    }
+
+    public String encode(Collection<String> authorities) {
+        byte[] bits = new byte[(names.length + 7) >>> 3];
+        int length = 0;
+        for (String authority : authorities) {
+            Integer position = positions.get(authority);
+            if (position == null) {
+                throw new IllegalArgumentException("Authority not in index: " + authority);
+            }
+            bits[position >>> 3] |= (byte) (1 << (position & 7));
+            length = Math.max(length, (position >>> 3) + 1);
+        }
+        return BITS_ENCODER.encodeToString(length == bits.length ? bits : Arrays.copyOf(bits, length));
+    }
+
+    public List<String> decode(String encodedBits) {
+        List<String> authorities = decoded.get(encodedBits);
+        if (authorities != null) {
+            return authorities;
+        }
+        authorities = decodeBits(encodedBits);
+        if (decoded.size() < MAX_CACHED_COMBINATIONS) {
+            decoded.putIfAbsent(encodedBits, authorities);
+        }
+        return authorities;
+    }
+
+    private List<String> decodeBits(String encodedBits) {
+        byte[] bits = BITS_DECODER.decode(encodedBits);
+        if (bits.length > (names.length + 7) >>> 3) {
+            throw new IllegalArgumentException("Authority bitset longer than index");
+        }
+        List<String> authorities = new ArrayList<>();
+        for (int i = 0; i < bits.length; i++) {
+            int word = bits[i] & 0xFF;
+            while (word != 0) {
+                int position = (i << 3) + Integer.numberOfTrailingZeros(word);
+                if (position >= names.length) {
+                    throw new IllegalArgumentException("Authority bit outside index");
+                }
+                authorities.add(names[position]);
+                word &= word - 1;
+            }
+        }
+        return List.copyOf(authorities);
+    }
+}
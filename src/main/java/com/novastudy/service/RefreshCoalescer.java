@@ -0,0 +1,183 @@
+package com.novastudy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jwt.JWTParser;
+import com.novastudy.config.TokenProperties;
+import com.novastudy.dto.response.RefreshAccessTokenResponse;
+import com.novastudy.utils.TokenDigestUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// concurrent refreshes of one refresh token share a single lookup and signature, the result is reused briefly
+@Component
+public class RefreshCoalescer {
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final UserService userService;
+    private final TokenProperties tokenProperties;
+    // bounded with amortized eviction; an in-flight entry does not expire, a completed one expires with its reuse window
+    private final Cache<ByteBuffer, Entry> entries = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfter(new EntryExpiry())
+            .build();
+    private final Counter leaderCounter;
+    private final Counter joinedCounter;
+    private final Counter reusedCounter;
+    private final Counter timedOutCounter;
+
+    public RefreshCoalescer(UserService userService, TokenProperties tokenProperties, MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.tokenProperties = tokenProperties;
+        this.leaderCounter = coalescedCounter(meterRegistry, "leader");
+        this.joinedCounter = coalescedCounter(meterRegistry, "joined");
+        this.reusedCounter = coalescedCounter(meterRegistry, "reused");
+        this.timedOutCounter = coalescedCounter(meterRegistry, "timed_out");
+    }
+
+    private static Counter coalescedCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("novastudy.refresh.coalesced")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // called outside any transaction, so followers never hold a connection while they wait
+    public RefreshAccessTokenResponse refresh(String refreshToken) {
+        ByteBuffer key = ByteBuffer.wrap(TokenDigestUtil.sha256(refreshToken));
+        long now = System.nanoTime();
+        Entry current = entries.getIfPresent(key);
+        if (current != null && current.isUsable(now)) {
+            return await(current, refreshToken);
+        }
+
+        Entry created = new Entry(subjectOf(refreshToken));
+        Entry winner = entries.asMap().compute(key, (k, existing) -> existing != null && existing.isUsable(now) ? existing : created);
+        if (winner != created) {
+            return await(winner, refreshToken);
+        }
+
+        leaderCounter.increment();
+        try {
+            RefreshAccessTokenResponse response = load(refreshToken);
+            created.reuseUntilNanos = System.nanoTime() + reuseWindow().toNanos();
+            created.result.complete(response);
+            // re-arms the expiry now that the reuse window is known
+            entries.asMap().replace(key, created, created);
+            return response;
+        } catch (Throwable e) {
+            // failures are shared with the callers already waiting but never reused
+            entries.asMap().remove(key, created);
+            created.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private RefreshAccessTokenResponse load(String refreshToken) {
+        return userService.refreshStateless(refreshToken)
+                .orElseGet(() -> userService.refreshToken(refreshToken));
+    }
+
+    public void evict(String refreshToken) {
+        entries.invalidate(ByteBuffer.wrap(TokenDigestUtil.sha256(refreshToken)));
+    }
+
+    // logout-all is rare, a scan of the bounded cache is cheaper than keeping a per-user index
+    public void evictUser(String username) {
+        entries.asMap().values().removeIf(entry -> username.equals(entry.username));
+    }
+
+    // unverified, only used to find a user's entries; the load verifies the token
+    private static String subjectOf(String refreshToken) {
+        try {
+            return JWTParser.parse(refreshToken).getJWTClaimsSet().getSubject();
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    // a reused access token keeps at least half of its lifetime
+    private Duration reuseWindow() {
+        Duration halfLifetime = Duration.ofSeconds(tokenProperties.getAccessTokenValidateSeconds()).dividedBy(2);
+        Duration window = tokenProperties.getRefreshReuseWindow();
+        return window.compareTo(halfLifetime) < 0 ? window : halfLifetime;
+    }
+
+    private RefreshAccessTokenResponse await(Entry entry, String refreshToken) {
+        if (entry.result.isDone()) {
+            reusedCounter.increment();
+            return unwrap(entry.result);
+        }
+        joinedCounter.increment();
+        try {
+            return unwrap(entry.result.copy().orTimeout(tokenProperties.getRefreshJoinTimeout().toNanos(),
+                    TimeUnit.NANOSECONDS));
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof TimeoutException)) {
+                throw e;
+            }
+            // a stuck leader only delays its followers up to the timeout
+            timedOutCounter.increment();
+            return load(refreshToken);
+        }
+    }
+
+    private static RefreshAccessTokenResponse unwrap(CompletableFuture<RefreshAccessTokenResponse> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+        private final String username;
+        private final CompletableFuture<RefreshAccessTokenResponse> result = new CompletableFuture<>();
+        // written before result completes, so it is visible to every caller that sees the result
+        private volatile long reuseUntilNanos;
+
+        private Entry(String username) {
+            this.username = username;
+        }
+
+        private boolean isUsable(long now) {
+            if (!result.isDone()) {
+                return true;
+            }
+            return !result.isCompletedExceptionally() && now - reuseUntilNanos < 0;
+        }
+    }
+
+    // caffeine's default ticker is System.nanoTime, the same clock as reuseUntilNanos
+    private static final class EntryExpiry implements Expiry<ByteBuffer, Entry> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Entry entry, long currentTime) {
+            return entry.result.isDone() ? Math.max(0, entry.reuseUntilNanos - currentTime) : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
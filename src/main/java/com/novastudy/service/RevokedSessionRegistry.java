@@ -0,0 +1,75 @@
+package com.novastudy.service;
+
+import com.novastudy.config.TokenProperties;
+import com.novastudy.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// session ids of revoked refresh tokens that have not expired yet, kept in step with refresh_tokens by polling
+@Component
+public class RevokedSessionRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(RevokedSessionRegistry.class);
+    private static final LocalDateTime NEVER = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenProperties tokenProperties;
+    private final ConcurrentHashMap<String, LocalDateTime> revokedSessions = new ConcurrentHashMap<>();
+    // newest revoked_at seen so far
+    private volatile LocalDateTime lastRevokedAt = NEVER;
+
+    public RevokedSessionRegistry(RefreshTokenRepository refreshTokenRepository,
+                                  TokenProperties tokenProperties,
+                                  MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenProperties = tokenProperties;
+        Gauge.builder("novastudy.refresh.revoked_sessions", revokedSessions, ConcurrentHashMap::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (tokenProperties.isStatelessRefresh()) {
+            logger.info("Loaded {} revoked refresh sessions", poll());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${novastudy.jwt.revoked-session-poll-interval:PT2S}")
+    public void refresh() {
+        if (tokenProperties.isStatelessRefresh()) {
+            poll();
+        }
+    }
+
+    private int poll() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastRevokedAt == NEVER ? NEVER : lastRevokedAt.minus(tokenProperties.getRevokedSessionPollOverlap());
+        List<RefreshTokenRepository.RevokedSession> sessions = refreshTokenRepository.findRevokedSince(since, now);
+        for (RefreshTokenRepository.RevokedSession session : sessions) {
+            revokedSessions.put(session.getSessionId(), session.getExpiresAt());
+            if (session.getRevokedAt().isAfter(lastRevokedAt)) {
+                lastRevokedAt = session.getRevokedAt();
+            }
+        }
+        // an expired refresh token fails its own signature check, so the entry is no longer needed
+        revokedSessions.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        return sessions.size();
+    }
+
+    // the revoking instance sees its own logout without waiting for the next poll
+    public void revoke(String sessionId, LocalDateTime expiresAt) {
+        revokedSessions.put(sessionId, expiresAt);
+    }
+
+    public boolean isRevoked(String sessionId) {
+        return revokedSessions.containsKey(sessionId);
+    }
+}
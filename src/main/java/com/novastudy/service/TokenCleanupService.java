@@ -1,24 +1,158 @@
 package com.novastudy.service;
 
+import com.novastudy.config.TokenCleanupProperties;
+import com.novastudy.config.TokenProperties;
+import com.novastudy.enums.TokenStatus;
+import com.novastudy.repository.RefreshTokenRepository;
 import com.novastudy.repository.TokenBlacklistRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Component
-@RequiredArgsConstructor
 public class TokenCleanupService {
     private static final Logger logger = LoggerFactory.getLogger(TokenCleanupService.class);
+
     private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationCache tokenRevocationCache;
+    private final TokenCleanupProperties tokenCleanupProperties;
+    private final TokenProperties tokenProperties;
+    private final PurgeTarget blacklistTarget;
+    private final PurgeTarget expiredRefreshTarget;
+    private final PurgeTarget invalidRefreshTarget;
+
+    public TokenCleanupService(TokenBlacklistRepository tokenBlacklistRepository,
+                               RefreshTokenRepository refreshTokenRepository,
+                               TokenRevocationCache tokenRevocationCache,
+                               TokenCleanupProperties tokenCleanupProperties,
+                               TokenProperties tokenProperties,
+                               MeterRegistry meterRegistry) {
+        this.tokenBlacklistRepository = tokenBlacklistRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenRevocationCache = tokenRevocationCache;
+        this.tokenCleanupProperties = tokenCleanupProperties;
+        this.tokenProperties = tokenProperties;
+        this.blacklistTarget = new PurgeTarget("token_blacklist", "expired", meterRegistry,
+                tokenBlacklistRepository::findOldestExpiresAt);
+        this.expiredRefreshTarget = new PurgeTarget("refresh_tokens", "expired", meterRegistry,
+                refreshTokenRepository::findOldestExpiresAt);
+        this.invalidRefreshTarget = new PurgeTarget("refresh_tokens", "invalid", meterRegistry, null);
+    }
 
-    @Scheduled(cron = "0 0 * * * *")
+    @Scheduled(cron = "${novastudy.token-cleanup.cron:0 0 * * * *}")
     public void cleanupExpiredTokens() {
-        logger.info("Starting cleanup of expired blacklisted tokens");
-        int deletedCount = tokenBlacklistRepository.deleteExpiredTokens(LocalDateTime.now());
-        logger.info("Deleted {} expired blacklisted tokens", deletedCount);
+        LocalDateTime now = LocalDateTime.now();
+        logger.info("Starting cleanup of expired tokens");
+
+        purge(blacklistTarget,
+                limit -> tokenBlacklistRepository.findExpiredIds(now, limit),
+                tokenBlacklistRepository::deleteAllByIdInBatch);
+        // rebuilding drops purged entries from the bloom filter
+        tokenRevocationCache.rebuild();
+
+        purge(expiredRefreshTarget,
+                limit -> refreshTokenRepository.findExpiredIds(now, limit),
+                refreshTokenRepository::deleteAllByIdInBatch);
+        // with stateless refresh a revoked row is the only record of the revocation until the token expires
+        if (!tokenProperties.isStatelessRefresh()) {
+            purge(invalidRefreshTarget,
+                    limit -> refreshTokenRepository.findIdsByStatus(TokenStatus.INVALID, limit),
+                    refreshTokenRepository::deleteAllByIdInBatch);
+        }
+    }
+
+    // delete in id-ordered chunks, each in its own short transaction, pausing between chunks
+    private void purge(PurgeTarget target, Function<Limit, List<Long>> nextBatch, Consumer<List<Long>> deleteBatch) {
+        int batchSize = tokenCleanupProperties.getBatchSize();
+        long started = System.nanoTime();
+        long deleted = 0;
+
+        for (int batch = 0; batch < tokenCleanupProperties.getMaxBatchesPerRun(); batch++) {
+            List<Long> ids = nextBatch.apply(Limit.of(batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            deleteBatch.accept(ids);
+            deleted += ids.size();
+            if (ids.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        target.record(deleted, elapsed);
+        logger.info("Deleted {} {} rows from {} in {} ms ({} rows/sec), lag {} s",
+                deleted, target.kind, target.table, elapsed.toMillis(),
+                Math.round(target.rowsPerSecond.get() / 1000.0), target.lagSeconds.get());
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(tokenCleanupProperties.getPauseBetweenBatches());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class PurgeTarget {
+        private final String table;
+        private final String kind;
+        private final Counter deletedRows;
+        private final Timer duration;
+        // rows/sec scaled by 1000 to keep three decimals in a long
+        private final AtomicLong rowsPerSecond = new AtomicLong();
+        private final AtomicLong lagSeconds = new AtomicLong();
+        private final Supplier<LocalDateTime> oldestExpiresAt;
+
+        private PurgeTarget(String table, String kind, MeterRegistry meterRegistry, Supplier<LocalDateTime> oldestExpiresAt) {
+            this.table = table;
+            this.kind = kind;
+            this.oldestExpiresAt = oldestExpiresAt;
+            this.deletedRows = Counter.builder("novastudy.token_cleanup.rows.deleted")
+                    .tags("table", table, "kind", kind)
+                    .register(meterRegistry);
+            this.duration = Timer.builder("novastudy.token_cleanup.duration")
+                    .tags("table", table, "kind", kind)
+                    .register(meterRegistry);
+            Gauge.builder("novastudy.token_cleanup.rows_per_second", rowsPerSecond, value -> value.get() / 1000.0)
+                    .tags("table", table, "kind", kind)
+                    .register(meterRegistry);
+            if (oldestExpiresAt != null) {
+                Gauge.builder("novastudy.token_cleanup.lag", lagSeconds, AtomicLong::get)
+                        .tags("table", table)
+                        .baseUnit("seconds")
+                        .register(meterRegistry);
+            }
+        }
+
+        // lag: how long the oldest row left in the table has been expired
+        private void record(long deleted, Duration elapsed) {
+            deletedRows.increment(deleted);
+            duration.record(elapsed);
+            double seconds = Math.max(elapsed.toNanos(), 1) / 1_000_000_000.0;
+            rowsPerSecond.set(Math.round(deleted / seconds * 1000));
+            if (oldestExpiresAt != null) {
+                LocalDateTime oldest = oldestExpiresAt.get();
+                LocalDateTime now = LocalDateTime.now();
+                lagSeconds.set(oldest != null && oldest.isBefore(now) ? Duration.between(oldest, now).toSeconds() : 0);
+            }
+        }
     }
 }
@@ -0,0 +1,161 @@
+package com.novastudy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.novastudy.config.RevocationProperties;
+import com.novastudy.entity.TokenBlackList;
+import com.novastudy.repository.TokenBlacklistRepository;
+import com.novastudy.utils.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class TokenRevocationCache {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationCache.class);
+
+    private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final RevocationProperties revocationProperties;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter falsePositiveCounter;
+    // guards filter swaps; a lock rather than synchronized so virtual threads are not pinned
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile BloomFilter bloomFilter;
+    // bounded with amortized eviction, each entry expires with the token it revokes
+    private volatile Cache<String, LocalDateTime> revokedTokens;
+
+    public TokenRevocationCache(TokenBlacklistRepository tokenBlacklistRepository,
+                                RevocationProperties revocationProperties,
+                                MeterRegistry meterRegistry) {
+        this.tokenBlacklistRepository = tokenBlacklistRepository;
+        this.revocationProperties = revocationProperties;
+        this.bloomFilter = BloomFilter.create(revocationProperties.getExpectedInsertions(), revocationProperties.getFalsePositiveProbability());
+        this.revokedTokens = newRevokedTokens();
+        this.hitCounter = lookupCounter(meterRegistry, "hit");
+        this.missCounter = lookupCounter(meterRegistry, "miss");
+        this.falsePositiveCounter = lookupCounter(meterRegistry, "false_positive");
+        Gauge.builder("novastudy.revocation.cache.size", this, cache -> cache.revokedTokens.estimatedSize())
+                .register(meterRegistry);
+        Gauge.builder("novastudy.revocation.bloom.expected_fpp", this, cache -> cache.bloomFilter.expectedFalsePositiveProbability())
+                .register(meterRegistry);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("novastudy.revocation.lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        lock.lock();
+        try {
+            doRebuild();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void doRebuild() {
+        List<TokenBlackList> activeTokens = tokenBlacklistRepository.findAllByExpiresAtAfter(LocalDateTime.now());
+        long expectedInsertions = Math.max(revocationProperties.getExpectedInsertions(), activeTokens.size() * 2L);
+        BloomFilter filter = BloomFilter.create(expectedInsertions, revocationProperties.getFalsePositiveProbability());
+        Cache<String, LocalDateTime> tokens = newRevokedTokens();
+
+        for (TokenBlackList token : activeTokens) {
+            filter.put(key(token.getJti()));
+            tokens.put(token.getJti(), token.getExpiresAt());
+        }
+        // keep revocations that may not be committed yet when the table was read
+        for (Map.Entry<String, LocalDateTime> entry : revokedTokens.asMap().entrySet()) {
+            filter.put(key(entry.getKey()));
+            tokens.asMap().putIfAbsent(entry.getKey(), entry.getValue());
+        }
+
+        this.bloomFilter = filter;
+        this.revokedTokens = tokens;
+        logger.info("Loaded {} revoked tokens into revocation cache", activeTokens.size());
+    }
+
+    public void revoke(String jti, LocalDateTime expiresAt) {
+        lock.lock();
+        try {
+            bloomFilter.put(key(jti));
+            remember(jti, expiresAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        if (!bloomFilter.mightContain(key(jti))) {
+            missCounter.increment();
+            return false;
+        }
+
+        LocalDateTime expiresAt = revokedTokens.getIfPresent(jti);
+        if (expiresAt != null) {
+            hitCounter.increment();
+            return true;
+        }
+
+        // bloom filter matched but the entry was evicted or never existed
+        return tokenBlacklistRepository.findByJti(jti)
+                .map(blacklistedToken -> {
+                    hitCounter.increment();
+                    remember(jti, blacklistedToken.getExpiresAt());
+                    return true;
+                })
+                .orElseGet(() -> {
+                    falsePositiveCounter.increment();
+                    return false;
+                });
+    }
+
+    // an evicted entry stays in the bloom filter, so the database remains the source of truth for it
+    private void remember(String jti, LocalDateTime expiresAt) {
+        revokedTokens.put(jti, expiresAt);
+    }
+
+    private Cache<String, LocalDateTime> newRevokedTokens() {
+        return Caffeine.newBuilder()
+                .maximumSize(revocationProperties.getMaxEntries())
+                .expireAfter(new RevocationExpiry())
+                .build();
+    }
+
+    private static byte[] key(String jti) {
+        return jti.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class RevocationExpiry implements Expiry<String, LocalDateTime> {
+        @Override
+        public long expireAfterCreate(String jti, LocalDateTime expiresAt, long currentTime) {
+            return Math.max(0, Duration.between(LocalDateTime.now(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String jti, LocalDateTime expiresAt, long currentTime, long currentDuration) {
+            return expireAfterCreate(jti, expiresAt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String jti, LocalDateTime expiresAt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
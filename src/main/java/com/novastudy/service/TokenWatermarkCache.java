@@ -0,0 +1,54 @@
+package com.novastudy.service;
+
+import com.novastudy.config.TokenProperties;
+import com.novastudy.repository.UserRepository;
+import com.novastudy.utils.TokenSecurityUtil;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class TokenWatermarkCache {
+    private static final Logger logger = LoggerFactory.getLogger(TokenWatermarkCache.class);
+
+    private final UserRepository userRepository;
+    private final TokenProperties tokenProperties;
+    private final ConcurrentHashMap<String, Long> watermarks = new ConcurrentHashMap<>();
+
+    public TokenWatermarkCache(UserRepository userRepository, TokenProperties tokenProperties) {
+        this.userRepository = userRepository;
+        this.tokenProperties = tokenProperties;
+    }
+
+    @PostConstruct
+    public void load() {
+        List<UserRepository.TokenWatermark> activeWatermarks = userRepository.findAllByTokensValidAfterGreaterThan(cutoff());
+        activeWatermarks.forEach(watermark -> watermarks.merge(watermark.getUsername(), watermark.getTokensValidAfter(), Math::max));
+        logger.info("Loaded {} token watermarks", activeWatermarks.size());
+    }
+
+    public void advance(String username, long epochMilli) {
+        watermarks.merge(username, epochMilli, Math::max);
+        long cutoff = cutoff();
+        watermarks.values().removeIf(watermark -> watermark < cutoff);
+    }
+
+    // only tokens issued strictly before the watermark, a login right after logout-all keeps its token
+    public boolean isRevoked(String username, Instant issuedAt) {
+        Long watermark = watermarks.get(username);
+        return watermark != null && (issuedAt == null || issuedAt.toEpochMilli() < watermark);
+    }
+
+    // once every access token issued before a watermark has expired the watermark can be dropped
+    private long cutoff() {
+        return Instant.now().toEpochMilli()
+                - TimeUnit.SECONDS.toMillis(tokenProperties.getAccessTokenValidateSeconds())
+                - TokenSecurityUtil.CLOCK_SKEW.toMillis();
+    }
+}
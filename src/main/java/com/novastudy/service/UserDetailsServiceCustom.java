@@ -1,32 +1,39 @@
 package com.novastudy.service;
 
+import com.novastudy.config.ReadYourWritesGuard;
 import com.novastudy.entity.User;
 import com.novastudy.repository.UserRepository;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
-
-import java.util.Collections;
+import org.springframework.transaction.annotation.Transactional;
 
 @Component("userDetailsService")
 public class UserDetailsServiceCustom implements UserDetailsService {
     private final UserRepository userRepository;
+    private final AuthoritySnapshotCache authoritySnapshotCache;
+    private final AuthorityRegistry authorityRegistry;
+    private final ReadYourWritesGuard readYourWritesGuard;
 
-    public UserDetailsServiceCustom(UserRepository userRepository) {
+    public UserDetailsServiceCustom(UserRepository userRepository,
+                                    AuthoritySnapshotCache authoritySnapshotCache,
+                                    AuthorityRegistry authorityRegistry,
+                                    ReadYourWritesGuard readYourWritesGuard) {
         this.userRepository = userRepository;
+        this.authoritySnapshotCache = authoritySnapshotCache;
+        this.authorityRegistry = authorityRegistry;
+        this.readYourWritesGuard = readYourWritesGuard;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        // login right after register must see the new row
+        readYourWritesGuard.routeToPrimaryIfRecentlyWritten(UserService.userKey(username));
+        User user = userRepository.findWithRolesByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Invalid account"));
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_CUSTOMER"))
-        );
+        return new UserPrincipal(user, authorityRegistry.intern(authoritySnapshotCache.resolve(user)));
     }
 }
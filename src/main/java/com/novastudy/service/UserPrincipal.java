@@ -0,0 +1,54 @@
+package com.novastudy.service;
+
+import com.novastudy.entity.Role;
+import com.novastudy.entity.User;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// authenticated principal carrying what login needs from the loaded user, so login does not load it again.
+// the entity itself is not kept, erasing the password here leaves no copy of the hash behind
+@Getter
+public class UserPrincipal implements UserDetails, CredentialsContainer {
+    private final String id;
+    private final String username;
+    private final String email;
+    private final String fullName;
+    private final LocalDateTime createdAt;
+    private final Set<Long> roleIds;
+    private final long version;
+    private final AuthoritySet authorities;
+    private String password;
+
+    public UserPrincipal(User user, AuthoritySet authorities) {
+        this.id = user.getId();
+        this.username = user.getUsername();
+        this.email = user.getEmail();
+        this.fullName = user.getFullName();
+        this.createdAt = user.getCreatedAt();
+        this.roleIds = user.getRoles().stream().map(Role::getId).collect(Collectors.toUnmodifiableSet());
+        this.version = user.getVersion();
+        this.authorities = authorities;
+        this.password = user.getPassword();
+    }
+
+    public Set<String> getAuthorityNames() {
+        return authorities.names();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.novastudy.service;
 
+import com.novastudy.config.ReadYourWritesGuard;
 import com.novastudy.config.TokenProperties;
 import com.novastudy.dto.request.RegisterAccountRequest;
 import com.novastudy.dto.response.InfoUserResponse;
@@ -13,27 +14,31 @@ import com.novastudy.repository.RefreshTokenRepository;
 import com.novastudy.repository.RoleRepository;
 import com.novastudy.repository.TokenBlacklistRepository;
 import com.novastudy.repository.UserRepository;
+import com.novastudy.utils.TokenDigestUtil;
 import com.novastudy.utils.TokenSecurityUtil;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
-import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "novastudy.user_service", histogram = true)
 public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     private final TokenProperties tokenProperties;
@@ -42,64 +47,78 @@ public class UserService {
     private final RoleRepository roleRepository;
     private final RefreshTokenRepository refreshTokenRepository;
     private final TokenSecurityUtil tokenSecurityUtil;
-    private final JwtDecoder jwtDecoder;
     private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final TokenRevocationCache tokenRevocationCache;
+    private final TokenWatermarkCache tokenWatermarkCache;
+    private final RevokedSessionRegistry revokedSessionRegistry;
+    private final UserVersionRegistry userVersionRegistry;
+    private final JwtDecoder jwtDecoder;
+    private final AuthoritySnapshotCache authoritySnapshotCache;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
 
-    private Set<String> extractAuthoritiesFromUser(User user) {
-        Hibernate.initialize(user.getRoles());
-        user.getRoles().forEach(role -> Hibernate.initialize(role.getPermissions()));
-        Set<String> roles = user.getRoles().stream().map(Role::getName).collect(Collectors.toSet());
-        Set<String> permissions = user.getRoles().stream()
-                .flatMap(role -> role.getPermissions().stream())
-                .map(Permission::getName)
-                .collect(Collectors.toSet());
-        Set<String> authorities = new HashSet<>();
-        authorities.addAll(roles);
-        authorities.addAll(permissions);
-        return authorities;
+    // keys for the read-your-writes guard
+    static String userKey(String username) {
+        return "user:" + username;
     }
 
-    public LoginResponse.UserLoginResponse findByUsername(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username and password"));
+    private static String refreshTokenKey(byte[] tokenHash) {
+        return "refresh:" + Base64.getEncoder().encodeToString(tokenHash);
+    }
 
-        Set<String> authorities = extractAuthoritiesFromUser(user);
+    private Set<String> extractAuthoritiesFromUser(User user) {
+        // only the role ids are read from the user, authorities come from the in-memory snapshot
+        return authoritySnapshotCache.resolve(user);
+    }
+
+    public LoginResponse.UserLoginResponse toUserLoginResponse(UserPrincipal principal) {
+        Set<String> authorities = principal.getAuthorityNames();
 
         return LoginResponse.UserLoginResponse.builder()
-                .userId(user.getId())
-                .userName(user.getUsername())
-                .email(user.getEmail())
-                .fullName(user.getFullName())
-                .createdAt(user.getCreatedAt().toString())
-                .updatedAt(user.getCreatedAt().toString())
+                .userId(principal.getId())
+                .userName(principal.getUsername())
+                .email(principal.getEmail())
+                .fullName(principal.getFullName())
+                .createdAt(principal.getCreatedAt().toString())
+                .updatedAt(principal.getCreatedAt().toString())
                 .authorities(authorities)
                 .build();
     }
 
-    public void updateRefreshTokenUser(String refreshToken, String username, String deviceInfo) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> AppException.resourceNotFound("User not found"));
+    @Transactional
+    public String issueRefreshToken(UserPrincipal principal, String deviceInfo) {
+        // the session id goes into the token, so it is chosen before signing
+        String sessionId = UUID.randomUUID().toString();
+        String refreshToken = tokenSecurityUtil.createRefreshToken(principal.getUsername(), sessionId, principal.getRoleIds(),
+                principal.getVersion());
+
+        // reference only, the user row was already loaded during authentication
+        User user = userRepository.getReferenceById(principal.getId());
 
         LocalDateTime issuedAt = LocalDateTime.now();
         LocalDateTime expiresAt = issuedAt.plusSeconds(tokenProperties.getRefreshTokenValidateSeconds());
         RefreshToken token = RefreshToken.builder()
                 .user(user)
-                .token(refreshToken)
-                .sessionId(UUID.randomUUID().toString())
+                .tokenHash(TokenDigestUtil.sha256(refreshToken))
+                .sessionId(sessionId)
                 .deviceInfo(deviceInfo != null ? deviceInfo : "Unknown")
                 .status(TokenStatus.VALID)
                 .issuedAt(issuedAt)
                 .expiresAt(expiresAt)
                 .build();
 
-        //save refresh token
+        // kept for auditing and logout even when refreshes do not read it
         refreshTokenRepository.save(token);
+        return refreshToken;
     }
 
+    @Transactional(readOnly = true)
     public InfoUserResponse getCurrentUserInfo() {
         String username = TokenSecurityUtil.getCurrentUserLogin()
                 .orElseThrow(() -> AppException.unauthorized("User not authenticated"));
-        User user = userRepository.findByUsername(username)
+        readYourWritesGuard.routeToPrimaryIfRecentlyWritten(userKey(username));
+        User user = userRepository.findWithRolesByUsername(username)
                 .orElseThrow(() -> AppException.resourceNotFound("User not found"));
 
         Set<String> authorities = extractAuthoritiesFromUser(user);
@@ -116,26 +135,37 @@ public class UserService {
     }
 
     public RegisterAccountResponse register(RegisterAccountRequest request) {
-        if (userRepository.findByUsername(request.getUsername()).isPresent()) {
-            throw AppException.conflict("Username already exists");
-        }
-        if (userRepository.findByEmail(request.getEmail()).isPresent()) {
-            throw AppException.conflict("Email already exists");
-        }
+        // cheap existence checks first, so a duplicate registration never pays for bcrypt
+        checkRegistrationConflicts(request);
 
-        User user = User.builder()
-                .username(request.getUsername())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .email(request.getEmail())
-                .fullName(request.getFullName())
-                .build();
+        // hash outside the transaction so no connection is held during bcrypt
+        String passwordHash = passwordEncoder.encode(request.getPassword());
+
+        User user;
+        try {
+            user = transactionTemplate.execute(status -> {
+                // re-checked, another registration may have won while the password was hashed
+                checkRegistrationConflicts(request);
 
-        Role role = roleRepository.findByName("ROLE_USER")
-                .orElseThrow(() -> AppException.resourceNotFound("ROLE_USER not found"));
-        user.setRoles(new HashSet<>());
-        user.getRoles().add(role);
+                User newUser = User.builder()
+                        .username(request.getUsername())
+                        .password(passwordHash)
+                        .email(request.getEmail())
+                        .fullName(request.getFullName())
+                        .build();
 
-        userRepository.save(user);
+                Role role = roleRepository.findByName("ROLE_USER")
+                        .orElseThrow(() -> AppException.resourceNotFound("ROLE_USER not found"));
+                newUser.setRoles(new HashSet<>());
+                newUser.getRoles().add(role);
+
+                return userRepository.save(newUser);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // the unique constraints caught a registration that raced past both checks
+            throw AppException.conflict("Username or email already exists");
+        }
+        readYourWritesGuard.markWritten(userKey(user.getUsername()));
 
         return RegisterAccountResponse.builder()
                 .id(user.getId())
@@ -145,38 +175,116 @@ public class UserService {
                 .build();
     }
 
+    private void checkRegistrationConflicts(RegisterAccountRequest request) {
+        if (userRepository.existsByUsername(request.getUsername())) {
+            throw AppException.conflict("Username already exists");
+        }
+        if (userRepository.existsByEmail(request.getEmail())) {
+            throw AppException.conflict("Email already exists");
+        }
+    }
+
+    @Transactional(readOnly = true)
     public RefreshAccessTokenResponse refreshToken(String refreshToken) {
-        RefreshToken refreshTokenEntity = refreshTokenRepository.findByToken(refreshToken)
-                .orElseThrow(() -> AppException.unauthorized("invalid refresh token"));
+        byte[] tokenHash = TokenDigestUtil.sha256(refreshToken);
+        readYourWritesGuard.routeToPrimaryIfRecentlyWritten(refreshTokenKey(tokenHash));
+        RefreshToken refreshTokenEntity = refreshTokenRepository.findWithUserByTokenHash(tokenHash)
+                .orElseThrow(() -> {
+                    recordRefreshOutcome("not_found");
+                    return AppException.unauthorized("invalid refresh token");
+                });
 
         // check token status + expiration
         if (refreshTokenEntity.getStatus() != TokenStatus.VALID) {
+            recordRefreshOutcome("invalid");
             throw AppException.unauthorized("Refresh token is not valid");
         }
         if (refreshTokenEntity.getExpiresAt().isBefore(LocalDateTime.now())) {
-            refreshTokenEntity.setStatus(TokenStatus.INVALID);
-            refreshTokenRepository.save(refreshTokenEntity);
+            refreshTokenRepository.updateStatusById(refreshTokenEntity.getId(), TokenStatus.INVALID);
+            recordRefreshOutcome("expired");
             throw AppException.unauthorized("Refresh token has expired");
         }
 
         //get info user
         User user = refreshTokenEntity.getUser();
+        // a replica lagging behind logout-all may still report the session as valid
+        Instant refreshIssuedAt = refreshTokenEntity.getIssuedAt().atZone(java.time.ZoneId.systemDefault()).toInstant();
+        if (tokenWatermarkCache.isRevoked(user.getUsername(), refreshIssuedAt)) {
+            recordRefreshOutcome("invalid");
+            throw AppException.unauthorized("Refresh token is not valid");
+        }
         Set<String> authorities = extractAuthoritiesFromUser(user);
 
         String accessToken = tokenSecurityUtil.createAccessToken(user.getUsername(), authorities);
+        recordRefreshOutcome("ok");
 
         return RefreshAccessTokenResponse.builder()
                 .accessToken(accessToken)
                 .build();
     }
 
-    public void logout(String refreshToken, String accessToken) {
-        logger.info("User logout attempt with refresh token: {}", refreshToken);
+    // empty when the token does not carry the stateless claims or was issued against another authority snapshot
+    public Optional<RefreshAccessTokenResponse> refreshStateless(String refreshToken) {
+        if (!tokenProperties.isStatelessRefresh()) {
+            return Optional.empty();
+        }
+        Jwt jwt;
+        try {
+            jwt = jwtDecoder.decode(refreshToken);
+        } catch (JwtValidationException e) {
+            recordRefreshOutcome("expired");
+            throw AppException.unauthorized("Refresh token has expired");
+        } catch (JwtException e) {
+            recordRefreshOutcome("invalid");
+            throw AppException.unauthorized("invalid refresh token");
+        }
+        if (!"refresh".equals(jwt.getClaimAsString("token_type")) || jwt.getSubject() == null) {
+            recordRefreshOutcome("invalid");
+            throw AppException.unauthorized("invalid refresh token");
+        }
+
+        String sessionId = jwt.getClaimAsString(TokenSecurityUtil.SESSION_ID_CLAIM);
+        // the role ids are only trusted while the user row is unchanged, permissions come from the current snapshot
+        Object userVersion = jwt.getClaim(TokenSecurityUtil.USER_VERSION_CLAIM);
+        List<?> roleIds = jwt.getClaim(TokenSecurityUtil.ROLE_IDS_CLAIM);
+        if (sessionId == null || !(userVersion instanceof Number version) || roleIds == null
+                || !userVersionRegistry.isCurrent(jwt.getSubject(), version.longValue())) {
+            return Optional.empty();
+        }
+
+        if (revokedSessionRegistry.isRevoked(sessionId) || tokenWatermarkCache.isRevoked(jwt.getSubject(), TokenSecurityUtil.issuedAt(jwt))) {
+            recordRefreshOutcome("invalid");
+            throw AppException.unauthorized("Refresh token is not valid");
+        }
 
+        Set<Long> roles = new HashSet<>();
+        for (Object roleId : roleIds) {
+            if (!(roleId instanceof Number number)) {
+                recordRefreshOutcome("invalid");
+                throw AppException.unauthorized("invalid refresh token");
+            }
+            roles.add(number.longValue());
+        }
+        String accessToken = tokenSecurityUtil.createAccessToken(jwt.getSubject(), authoritySnapshotCache.resolve(roles));
+        recordRefreshOutcome("ok");
+
+        return Optional.of(RefreshAccessTokenResponse.builder()
+                .accessToken(accessToken)
+                .build());
+    }
+
+    private void recordRefreshOutcome(String outcome) {
+        meterRegistry.counter("novastudy.refresh.outcomes", "outcome", outcome).increment();
+    }
+
+    @Transactional
+    public void logout(String refreshToken, Jwt accessToken) {
         // Get refresh token entity to retrieve session_id and device_info
-        RefreshToken tokenEntity = refreshTokenRepository.findByToken(refreshToken)
+        byte[] tokenHash = TokenDigestUtil.sha256(refreshToken);
+        logger.info("User logout attempt with refresh token digest: {}", TokenDigestUtil.logPrefix(tokenHash));
+        RefreshToken tokenEntity = refreshTokenRepository.findByTokenHash(tokenHash)
                 .orElseThrow(() -> {
-                    logger.error("Invalid refresh token during logout: {}", refreshToken);
+                    logger.error("Invalid refresh token during logout, digest: {}", TokenDigestUtil.logPrefix(tokenHash));
                     return AppException.unauthorized("Invalid refresh token");
                 });
 
@@ -184,23 +292,37 @@ public class UserService {
         String deviceInfo = tokenEntity.getDeviceInfo();
         String username = tokenEntity.getUser().getUsername();
 
-        // Blacklist the access token
-        Jwt jwt = jwtDecoder.decode(accessToken);
-        Instant expiresAtInstant = jwt.getExpiresAt();
+        // Blacklist the access token, already verified by JwtAuthenticationFilter
+        Instant expiresAtInstant = accessToken.getExpiresAt();
         LocalDateTime expiresAt = LocalDateTime.ofInstant(expiresAtInstant, java.time.ZoneId.systemDefault());
 
-        TokenBlackList blacklistedToken = TokenBlackList.builder()
-                .token(accessToken)
-                .expiresAt(expiresAt)
-                .build();
-        tokenBlacklistRepository.save(blacklistedToken);
+        String jti = accessToken.getId();
+        tokenBlacklistRepository.insertIfAbsent(jti, LocalDateTime.now(), expiresAt);
+        tokenRevocationCache.revoke(jti, expiresAt);
         logger.debug("Access token blacklisted: {} for user: {}, session: {}, device: {}",
-                accessToken, username, sessionId, deviceInfo);
+                jti, username, sessionId, deviceInfo);
 
         // Invalidate the refresh token
         tokenEntity.setStatus(TokenStatus.INVALID);
+        tokenEntity.setRevokedAt(LocalDateTime.now());
         refreshTokenRepository.save(tokenEntity);
-        logger.info("Refresh token invalidated: {} for user: {}, session: {}, device: {}",
-                refreshToken, username, sessionId, deviceInfo);
+        revokedSessionRegistry.revoke(sessionId, tokenEntity.getExpiresAt());
+        readYourWritesGuard.markWritten(refreshTokenKey(tokenHash));
+        logger.info("Refresh token invalidated for user: {}, session: {}, device: {}",
+                username, sessionId, deviceInfo);
+    }
+
+    @Transactional
+    public void logoutEverywhere(String username) {
+        long watermark = Instant.now().toEpochMilli();
+        if (userRepository.updateTokensValidAfter(username, watermark) == 0) {
+            throw AppException.resourceNotFound("User not found");
+        }
+        tokenWatermarkCache.advance(username, watermark);
+        readYourWritesGuard.markWritten(userKey(username));
+
+        // other instances pick the sessions up from revoked_at, this one already has the watermark
+        int invalidated = refreshTokenRepository.updateStatusByUsername(username, TokenStatus.INVALID, LocalDateTime.now());
+        logger.info("Revoked all tokens for user: {}, refresh tokens invalidated: {}", username, invalidated);
     }
 }
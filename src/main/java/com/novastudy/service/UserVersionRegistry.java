@@ -0,0 +1,82 @@
+package com.novastudy.service;
+
+import com.novastudy.config.TokenProperties;
+import com.novastudy.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// row versions of users changed within the refresh token lifetime, kept in step with users by polling.
+// a user missing here has not changed since any live refresh token was issued, so its stamped version is current
+@Component
+public class UserVersionRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(UserVersionRegistry.class);
+
+    private final UserRepository userRepository;
+    private final TokenProperties tokenProperties;
+    private final ConcurrentHashMap<String, ChangedUser> changedUsers = new ConcurrentHashMap<>();
+    // newest updated_at seen so far
+    private volatile LocalDateTime lastUpdatedAt;
+
+    public UserVersionRegistry(UserRepository userRepository, TokenProperties tokenProperties) {
+        this.userRepository = userRepository;
+        this.tokenProperties = tokenProperties;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (tokenProperties.isStatelessRefresh()) {
+            lastUpdatedAt = oldestLiveIssuedAt(LocalDateTime.now());
+            logger.info("Loaded {} changed users", poll());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${novastudy.jwt.revoked-session-poll-interval:PT2S}")
+    public void refresh() {
+        if (tokenProperties.isStatelessRefresh()) {
+            poll();
+        }
+    }
+
+    private int poll() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UserRepository.ChangedUser> users = userRepository.findChangedSince(
+                lastUpdatedAt.minus(tokenProperties.getRevokedSessionPollOverlap()));
+        for (UserRepository.ChangedUser user : users) {
+            record(user.getUsername(), user.getVersion(), user.getUpdatedAt());
+            if (user.getUpdatedAt().isAfter(lastUpdatedAt)) {
+                lastUpdatedAt = user.getUpdatedAt();
+            }
+        }
+        // every refresh token issued before the change has expired
+        LocalDateTime cutoff = oldestLiveIssuedAt(now);
+        changedUsers.values().removeIf(changed -> changed.updatedAt().isBefore(cutoff));
+        return users.size();
+    }
+
+    // the changing instance sees its own commit without waiting for the next poll
+    public void record(String username, long version, LocalDateTime updatedAt) {
+        if (tokenProperties.isStatelessRefresh()) {
+            changedUsers.merge(username, new ChangedUser(version, updatedAt),
+                    (current, changed) -> changed.version() > current.version() ? changed : current);
+        }
+    }
+
+    public boolean isCurrent(String username, long version) {
+        ChangedUser changed = changedUsers.get(username);
+        return changed == null || changed.version() == version;
+    }
+
+    private LocalDateTime oldestLiveIssuedAt(LocalDateTime now) {
+        return now.minusSeconds(tokenProperties.getRefreshTokenValidateSeconds());
+    }
+
+    private record ChangedUser(long version, LocalDateTime updatedAt) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.novastudy.utils;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// generic cell rate algorithm over a two row count-min sketch: memory is fixed however many keys are seen.
+// each cell holds a theoretical arrival time, a key's estimate is the lower of its two cells, so keys only
+// share a budget when they collide in both rows
+public class RateLimiterSketch {
+    private static final int ROWS = 2;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final long[] seeds;
+    private final long origin = System.nanoTime();
+
+    private RateLimiterSketch(int width, long intervalNanos, long toleranceNanos) {
+        this.cells = new AtomicLongArray(ROWS * width);
+        this.mask = width - 1;
+        this.intervalNanos = intervalNanos;
+        this.toleranceNanos = toleranceNanos;
+        // per instance seeds, so colliding keys cannot be worked out ahead of time
+        this.seeds = new long[]{ThreadLocalRandom.current().nextLong(), ThreadLocalRandom.current().nextLong()};
+    }
+
+    // permits requests per period, all of which may arrive as one burst
+    public static RateLimiterSketch create(int permits, Duration period, int width) {
+        if (permits < 1 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Rate limit needs at least one permit per positive period");
+        }
+        long intervalNanos = Math.max(1, period.toNanos() / permits);
+        int cellsPerRow = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        return new RateLimiterSketch(cellsPerRow, intervalNanos, intervalNanos * (permits - 1));
+    }
+
+    // 0 when the request is admitted, otherwise the nanoseconds until this key would be admitted again
+    public long tryAcquire(String key) {
+        int first = (int) (hash(key, seeds[0]) & mask);
+        int second = mask + 1 + (int) (hash(key, seeds[1]) & mask);
+        while (true) {
+            long now = System.nanoTime() - origin;
+            long firstArrival = cells.get(first);
+            long secondArrival = cells.get(second);
+            int cell = firstArrival <= secondArrival ? first : second;
+            long estimate = Math.min(firstArrival, secondArrival);
+
+            long start = Math.max(estimate, now);
+            long wait = start - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            long next = start + intervalNanos;
+            // the lower cell decides admission, a lost race re-reads both cells
+            if (cells.compareAndSet(cell, estimate, next)) {
+                // conservative update: the other cell is only ever raised
+                cells.accumulateAndGet(cell == first ? second : first, next, Math::max);
+                return 0;
+            }
+        }
+    }
+
+    // same mix as BloomFilter, over chars so the key is not copied
+    private static long hash(String key, long seed) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
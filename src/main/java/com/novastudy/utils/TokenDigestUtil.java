@@ -0,0 +1,24 @@
+package com.novastudy.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public class TokenDigestUtil {
+    public static final int DIGEST_LENGTH = 32;
+
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM is required to ship SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // first 8 bytes of the digest in hex, enough to correlate log lines without logging the token
+    public static String logPrefix(byte[] digest) {
+        return HexFormat.of().formatHex(digest, 0, 8);
+    }
+}
@@ -1,13 +1,18 @@
 package com.novastudy.utils;
 
+import com.novastudy.enums.ErrorCode;
+import com.novastudy.exception.ErrorBodyCache;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 
 public class TokenErrorResponseUtil {
-    public static void sendUnauthorizedResponse(HttpServletResponse response, String message, String errorCode) throws IOException {
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        response.setContentType("application/json");
-        response.getWriter().write("{\"status\": 401, \"message\": \"" + message + "\", \"errorCode\": \"" + errorCode + "\"}");
+    public static void sendUnauthorizedResponse(HttpServletRequest request, HttpServletResponse response, ErrorCode errorCode) throws IOException {
+        sendUnauthorizedResponse(request, response, errorCode, errorCode.getMessage());
+    }
+
+    public static void sendUnauthorizedResponse(HttpServletRequest request, HttpServletResponse response, ErrorCode errorCode, String message) throws IOException {
+        ErrorBodyCache.write(response, errorCode, message, request.getRequestURI());
     }
 }
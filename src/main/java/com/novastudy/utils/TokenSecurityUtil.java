@@ -1,13 +1,13 @@
 package com.novastudy.utils;
 
 import com.novastudy.config.TokenProperties;
+import com.novastudy.service.AuthorityClaimCodec;
+import io.micrometer.core.annotation.Timed;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,16 +15,34 @@ import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.*;
 import org.springframework.stereotype.Service;
 
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class TokenSecurityUtil {
     private final JwtEncoder jwtEncoder;
     private final TokenProperties tokenProperties;
+    private final AuthorityClaimCodec authorityClaimCodec;
     public static final MacAlgorithm JWT_ALGORITHM = MacAlgorithm.HS256;
+    public static final Duration CLOCK_SKEW = Duration.ofSeconds(10);
+    public static final String AUTHENTICATED_JWT_ATTRIBUTE = TokenSecurityUtil.class.getName() + ".AUTHENTICATED_JWT";
+    // refresh token claims: the session row it belongs to, and for stateless refresh the role ids and the user row version
+    public static final String SESSION_ID_CLAIM = "sid";
+    public static final String ROLE_IDS_CLAIM = "rid";
+    public static final String USER_VERSION_CLAIM = "uv";
+    // iat is whole seconds on the wire, logout-all needs to tell apart tokens issued in the same second
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+    private static final SecureRandom TOKEN_ID_RANDOM = new SecureRandom();
+    private static final Base64.Encoder TOKEN_ID_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    // tokens issued before iat_ms fall back to the start of their second
+    public static Instant issuedAt(Jwt jwt) {
+        Object issuedAtMillis = jwt.getClaims().get(ISSUED_AT_MILLIS_CLAIM);
+        return issuedAtMillis instanceof Number millis ? Instant.ofEpochMilli(millis.longValue()) : jwt.getIssuedAt();
+    }
 
     public static Optional<String> getCurrentUserLogin() {
         SecurityContext securityContext = SecurityContextHolder.getContext();
@@ -46,22 +64,33 @@ public class TokenSecurityUtil {
         return null;
     }
 
-    public TokenSecurityUtil(JwtEncoder jwtEncoder, TokenProperties tokenProperties) {
+    public TokenSecurityUtil(JwtEncoder jwtEncoder, TokenProperties tokenProperties, AuthorityClaimCodec authorityClaimCodec) {
         this.jwtEncoder = jwtEncoder;
         this.tokenProperties = tokenProperties;
+        this.authorityClaimCodec = authorityClaimCodec;
+    }
+
+    // 128 random bits, 22 characters once base64url encoded
+    private static String newTokenId() {
+        byte[] bytes = new byte[16];
+        TOKEN_ID_RANDOM.nextBytes(bytes);
+        return TOKEN_ID_ENCODER.encodeToString(bytes);
     }
 
+    @Timed(value = "novastudy.jwt.create", extraTags = {"type", "access"})
     public String createAccessToken(String userName, Set<String> authorities) {
         Instant now = Instant.now();
         Instant validity = now.plus(tokenProperties.getAccessTokenValidateSeconds(), ChronoUnit.SECONDS);
 
-        JwtClaimsSet jwtClaimsSet = JwtClaimsSet.builder()
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
                 .issuedAt(now)
                 .expiresAt(validity)
                 .subject(userName)
-                .claim("token_type", "access")
-                .claim("authorities", authorities)
-                .build();
+                .id(newTokenId())
+                .claim(ISSUED_AT_MILLIS_CLAIM, now.toEpochMilli())
+                .claim("token_type", "access");
+        authorityClaimCodec.addClaims(claims, authorities);
+        JwtClaimsSet jwtClaimsSet = claims.build();
 
         JwsHeader jwsHeader = JwsHeader.with(JWT_ALGORITHM).build();
 
@@ -69,16 +98,24 @@ public class TokenSecurityUtil {
                 .from(jwsHeader, jwtClaimsSet)).getTokenValue();
     }
 
-    public String createRefreshToken(String userName) {
+    @Timed(value = "novastudy.jwt.create", extraTags = {"type", "refresh"})
+    public String createRefreshToken(String userName, String sessionId, Set<Long> roleIds, long userVersion) {
         Instant now = Instant.now();
         Instant validity = now.plus(tokenProperties.getRefreshTokenValidateSeconds(), ChronoUnit.SECONDS);
 
-        JwtClaimsSet jwtClaimsSet = JwtClaimsSet.builder()
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
                 .issuedAt(now)
                 .expiresAt(validity)
                 .subject(userName)
+                .id(newTokenId())
+                .claim(ISSUED_AT_MILLIS_CLAIM, now.toEpochMilli())
                 .claim("token_type", "refresh")
-                .build();
+                .claim(SESSION_ID_CLAIM, sessionId);
+        if (tokenProperties.isStatelessRefresh()) {
+            claims.claim(ROLE_IDS_CLAIM, roleIds)
+                    .claim(USER_VERSION_CLAIM, userVersion);
+        }
+        JwtClaimsSet jwtClaimsSet = claims.build();
 
         JwsHeader jwsHeader = JwsHeader.with(JWT_ALGORITHM).build();
 
@@ -112,19 +149,4 @@ public class TokenSecurityUtil {
                 .maxAge(maxAge)
                 .build();
     }
-
-    public void validateAndSetAuthentication(String accessToken, JwtDecoder jwtDecoder) throws JwtException {
-        Jwt jwt = jwtDecoder.decode(accessToken);
-        String username = jwt.getSubject();
-        List<String> authorities = jwt.getClaimAsStringList("authorities");
-        if (username == null || authorities == null) {
-            throw new JwtException("Invalid JWT token: missing username or authorities");
-        }
-        List<SimpleGrantedAuthority> grantedAuthorities = authorities.stream()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
-
-        UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(username, null, grantedAuthorities);
-        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-    }
 }
@@ -0,0 +1,6 @@
+-- One-time migration: record when a refresh token was revoked, for the stateless refresh mode.
+-- Rows already invalidated get the migration time, so they are picked up by the revoked session registry.
+
+ALTER TABLE refresh_tokens ADD COLUMN revoked_at DATETIME(6) NULL;
+UPDATE refresh_tokens SET revoked_at = NOW(6) WHERE status = 'INVALID';
+CREATE INDEX idx_refresh_tokens_revoked_at ON refresh_tokens (revoked_at);
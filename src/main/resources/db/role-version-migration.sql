@@ -0,0 +1,3 @@
+-- One-time migration: optimistic version on roles, so permission grant changes update the role row.
+
+ALTER TABLE roles ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
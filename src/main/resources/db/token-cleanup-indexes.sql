@@ -0,0 +1,5 @@
+-- Indexes used by the chunked expired-token purge in TokenCleanupService.
+
+CREATE INDEX idx_token_blacklist_expires_at ON token_blacklist (expires_at);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
+CREATE INDEX idx_refresh_tokens_status ON refresh_tokens (status);
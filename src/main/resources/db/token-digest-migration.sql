@@ -0,0 +1,24 @@
+-- One-time migration: store SHA-256 digests of tokens instead of the raw JWT strings.
+-- Run once against the existing schema before deploying the digest-based entities.
+
+-- token_blacklist
+ALTER TABLE token_blacklist ADD COLUMN token_hash BINARY(32) NULL;
+UPDATE token_blacklist SET token_hash = UNHEX(SHA2(token, 256));
+DELETE t1 FROM token_blacklist t1
+    JOIN token_blacklist t2 ON t1.token_hash = t2.token_hash AND t1.id > t2.id;
+ALTER TABLE token_blacklist
+    MODIFY token_hash BINARY(32) NOT NULL,
+    DROP COLUMN token,
+    ADD CONSTRAINT uk_token_blacklist_token_hash UNIQUE (token_hash);
+
+-- refresh_tokens
+-- if idx_refresh_tokens_token was created with a prefix length, drop it first:
+-- ALTER TABLE refresh_tokens DROP INDEX idx_refresh_tokens_token;
+ALTER TABLE refresh_tokens ADD COLUMN token_hash BINARY(32) NULL;
+UPDATE refresh_tokens SET token_hash = UNHEX(SHA2(token, 256));
+DELETE t1 FROM refresh_tokens t1
+    JOIN refresh_tokens t2 ON t1.token_hash = t2.token_hash AND t1.id > t2.id;
+ALTER TABLE refresh_tokens
+    MODIFY token_hash BINARY(32) NOT NULL,
+    DROP COLUMN token,
+    ADD CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash);
@@ -0,0 +1,11 @@
+-- One-time migration: revoke access tokens by jti and add the per-user revocation watermark.
+-- Access tokens issued before this change carry no jti and are rejected, so the old rows can go.
+
+DELETE FROM token_blacklist;
+ALTER TABLE token_blacklist
+    DROP INDEX uk_token_blacklist_token_hash,
+    DROP COLUMN token_hash,
+    ADD COLUMN jti VARCHAR(32) NOT NULL,
+    ADD CONSTRAINT uk_token_blacklist_jti UNIQUE (jti);
+
+ALTER TABLE users ADD COLUMN tokens_valid_after BIGINT NULL;
@@ -0,0 +1,5 @@
+-- One-time migration: users.tokens_valid_after moves from epoch seconds to epoch milliseconds.
+-- Values below 10^11 are still seconds (10^11 ms is March 1973).
+
+UPDATE users SET tokens_valid_after = tokens_valid_after * 1000
+WHERE tokens_valid_after IS NOT NULL AND tokens_valid_after < 100000000000;
@@ -0,0 +1,5 @@
+-- One-time migration: optimistic version on users, stamped into stateless refresh tokens.
+-- updated_at is polled for users changed since the last poll.
+
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+CREATE INDEX idx_users_updated_at ON users (updated_at);
@@ -0,0 +1,101 @@
+package com.novastudy.config;
+
+import com.novastudy.enums.ErrorCode;
+import com.novastudy.exception.AppException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthorityInterceptorTest {
+
+    private final AuthorityInterceptor interceptor = new AuthorityInterceptor(
+            new StaticListableBeanFactory().getBeanProvider(RequestMappingHandlerMapping.class), new SimpleMeterRegistry());
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void methodRuleOverridesTypeRule() throws Exception {
+        HandlerMethod profile = handler("profile");
+        HandlerMethod reports = handler("reports");
+
+        authenticate("VIEW_PROFILE");
+        assertTrue(interceptor.preHandle(null, null, profile));
+        assertForbidden(reports);
+
+        authenticate("EXPORT_REPORTS");
+        assertForbidden(profile);
+        assertTrue(interceptor.preHandle(null, null, reports));
+    }
+
+    @Test
+    void requireAllNeedsEveryAuthority() throws Exception {
+        HandlerMethod manage = handler("manage");
+
+        authenticate("MANAGE_USERS");
+        assertForbidden(manage);
+
+        authenticate("MANAGE_USERS", "ROLE_ADMIN");
+        assertTrue(interceptor.preHandle(null, null, manage));
+    }
+
+    @Test
+    void deniesWithoutAuthentication() throws Exception {
+        HandlerMethod profile = handler("profile");
+
+        assertForbidden(profile);
+    }
+
+    @Test
+    void sameMethodIsGuardedPerController() throws Exception {
+        HandlerMethod inherited = new HandlerMethod(new ProfileReportsController(), ReportsController.class.getMethod("reports"));
+        HandlerMethod guarded = handler("reports");
+
+        authenticate("VIEW_PROFILE");
+        assertTrue(interceptor.preHandle(null, null, inherited));
+        assertForbidden(guarded);
+    }
+
+    private void assertForbidden(HandlerMethod handler) {
+        AppException.Exception exception = assertThrows(AppException.Exception.class,
+                () -> interceptor.preHandle(null, null, handler));
+        assertEquals(ErrorCode.FORBIDDEN, exception.getErrorCode());
+    }
+
+    private static void authenticate(String... authorities) {
+        TestingAuthenticationToken authentication = new TestingAuthenticationToken("alice", null, authorities);
+        authentication.setAuthenticated(true);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new ReportsController(), ReportsController.class.getMethod(name));
+    }
+
+    @RequiresAuthority("EXPORT_REPORTS")
+    static class ReportsController {
+        @RequiresAuthority("VIEW_PROFILE")
+        public void profile() {
+        }
+
+        public void reports() {
+        }
+
+        @RequiresAuthority(value = {"MANAGE_USERS", "ROLE_ADMIN"}, requireAll = true)
+        public void manage() {
+        }
+    }
+
+    @RequiresAuthority("VIEW_PROFILE")
+    static class ProfileReportsController extends ReportsController {
+    }
+}
@@ -0,0 +1,150 @@
+package com.novastudy.config;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Hs256JwtCodecTest {
+
+    private final SecretKey secretKey = new SecretKeySpec(
+            "0123456789abcdef0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII), "HmacSHA256");
+    private final OAuth2TokenValidator<Jwt> validator = new DelegatingOAuth2TokenValidator<>(
+            List.of(new JwtTimestampValidator(Duration.ofSeconds(10))));
+    private final JwtEncoder nimbusEncoder = new NimbusJwtEncoder(new ImmutableSecret<>(secretKey));
+    private final NimbusJwtDecoder nimbusDecoder = NimbusJwtDecoder.withSecretKey(secretKey)
+            .macAlgorithm(MacAlgorithm.HS256).build();
+    private final JwtEncoder encoder = new Hs256JwtEncoder(secretKey, nimbusEncoder);
+    private final JwtDecoder decoder = new Hs256JwtDecoder(secretKey, validator, nimbusDecoder);
+
+    {
+        nimbusDecoder.setJwtValidator(validator);
+    }
+
+    @Test
+    void nimbusReadsOurTokensAndWeReadNimbusTokens() {
+        JwtEncoderParameters parameters = parameters(Instant.now().plusSeconds(60));
+
+        Jwt ours = nimbusDecoder.decode(encoder.encode(parameters).getTokenValue());
+        Jwt theirs = decoder.decode(nimbusEncoder.encode(parameters).getTokenValue());
+
+        assertEquals(ours.getClaims(), theirs.getClaims());
+        assertEquals("alice", theirs.getSubject());
+        assertEquals(List.of("ROLE_USER", "VIEW_PROFILE"), theirs.getClaimAsStringList("authorities"));
+        assertEquals(List.of(3L, 7L), theirs.getClaim("rid"));
+        assertEquals(parameters.getClaims().getExpiresAt().getEpochSecond(), theirs.getExpiresAt().getEpochSecond());
+    }
+
+    @Test
+    void producesTheSameHeaderAndSignatureAsNimbus() {
+        JwtEncoderParameters parameters = JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(),
+                JwtClaimsSet.builder().subject("bob").claim("token_type", "access").build());
+
+        assertEquals(nimbusEncoder.encode(parameters).getTokenValue(), encoder.encode(parameters).getTokenValue());
+    }
+
+    @Test
+    void escapesStringsLikeJson() {
+        String subject = "quote\" backslash\\ tab\t é 🙂";
+        Jwt jwt = encoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(),
+                JwtClaimsSet.builder().subject(subject).build()));
+
+        assertEquals(subject, nimbusDecoder.decode(jwt.getTokenValue()).getSubject());
+        assertEquals(subject, decoder.decode(jwt.getTokenValue()).getSubject());
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        String token = encoder.encode(parameters(Instant.now().plusSeconds(60))).getTokenValue();
+        int payloadStart = token.indexOf('.') + 1;
+        char flipped = token.charAt(payloadStart) == 'e' ? 'f' : 'e';
+        String tampered = token.substring(0, payloadStart) + flipped + token.substring(payloadStart + 1);
+
+        BadJwtException e = assertThrows(BadJwtException.class, () -> decoder.decode(tampered));
+        assertTrue(e.getMessage().contains("Invalid signature"));
+        assertThrows(BadJwtException.class, () -> decoder.decode(token + ".extra"));
+        assertThrows(BadJwtException.class, () -> decoder.decode(token.substring(0, token.length() - 1) + "*"));
+    }
+
+    @Test
+    void validatesTimestamps() {
+        String token = encoder.encode(parameters(Instant.now().minusSeconds(60))).getTokenValue();
+
+        JwtValidationException e = assertThrows(JwtValidationException.class, () -> decoder.decode(token));
+        assertTrue(e.getMessage().contains("expired"));
+    }
+
+    @Test
+    void leavesOtherHeadersToNimbus() {
+        JwtEncoderParameters parameters = JwtEncoderParameters.from(
+                JwsHeader.with(MacAlgorithm.HS256).type("JWT").build(),
+                parameters(Instant.now().plusSeconds(60)).getClaims());
+
+        String token = encoder.encode(parameters).getTokenValue();
+
+        assertFalse(token.startsWith(Hs256JwtEncoder.HEADER_SEGMENT + "."));
+        assertEquals("alice", decoder.decode(token).getSubject());
+    }
+
+    @Test
+    void parsesJsonStrictly() {
+        Map<String, Object> claims = JwtJson.parseClaims(bytes(" {\"sub\":\"a\\u0041\",\"n\":-12,\"d\":1.5,\"b\":true,\"x\":null,\"o\":{\"l\":[]}} "));
+
+        assertEquals("aA", claims.get("sub"));
+        assertEquals(-12L, claims.get("n"));
+        assertEquals(1.5, claims.get("d"));
+        assertEquals(Boolean.TRUE, claims.get("b"));
+        assertTrue(claims.containsKey("x"));
+        assertEquals(Map.of("l", List.of()), claims.get("o"));
+        assertThrows(IllegalArgumentException.class, () -> JwtJson.parseClaims(bytes("{\"exp\":1,\"exp\":2}")));
+        assertThrows(IllegalArgumentException.class, () -> JwtJson.parseClaims(bytes("{\"sub\":\"a\"} x")));
+        assertThrows(IllegalArgumentException.class, () -> JwtJson.parseClaims(bytes("{\"sub\":\"a\",}")));
+        assertThrows(IllegalArgumentException.class, () -> JwtJson.parseClaims(bytes("[1]")));
+        assertThrows(IllegalArgumentException.class, () -> JwtJson.parseClaims(bytes("{\"a\":" + "[".repeat(20) + "]".repeat(20) + "}")));
+    }
+
+    @Test
+    void roundTripsBase64UrlAtEveryLength() {
+        Base64.Encoder reference = Base64.getUrlEncoder().withoutPadding();
+        for (int length = 0; length < 10; length++) {
+            byte[] data = new byte[length];
+            for (int i = 0; i < length; i++) {
+                data[i] = (byte) (i * 77 - 3);
+            }
+            byte[] encoded = new byte[Base64Url.encodedLength(length)];
+            assertEquals(encoded.length, Base64Url.encode(data, length, encoded, 0));
+            assertEquals(reference.encodeToString(data), new String(encoded, StandardCharsets.US_ASCII));
+            assertArrayEquals(data, Base64Url.decode(encoded, 0, encoded.length));
+        }
+    }
+
+    private static JwtEncoderParameters parameters(Instant expiresAt) {
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject("alice")
+                .issuedAt(expiresAt.minusSeconds(300))
+                .expiresAt(expiresAt)
+                .id("k3J9xQ")
+                .claim("token_type", "access")
+                .claim("authorities", List.of("ROLE_USER", "VIEW_PROFILE"))
+                .claim("rid", List.of(3L, 7L))
+                .build();
+        return JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims);
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
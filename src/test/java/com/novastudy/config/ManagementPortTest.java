@@ -0,0 +1,45 @@
+package com.novastudy.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "management.server.port=0", "management.server.address=127.0.0.1"})
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class ManagementPortTest {
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @LocalServerPort
+    private int serverPort;
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void actuatorIsOnlyServedOnTheManagementPort() {
+        assertEquals(HttpStatus.NOT_FOUND, status(serverPort, "/actuator/prometheus"));
+        assertEquals(HttpStatus.NOT_FOUND, status(serverPort, "/actuator/health"));
+        assertEquals(HttpStatus.OK, status(managementPort, "/actuator/prometheus"));
+        assertEquals(HttpStatus.OK, status(managementPort, "/actuator/health"));
+    }
+
+    @Test
+    void probesStayOnTheApplicationPort() {
+        assertEquals(HttpStatus.OK, status(serverPort, "/livez"));
+        assertEquals(HttpStatus.OK, status(serverPort, "/readyz"));
+    }
+
+    private HttpStatus status(int port, String path) {
+        return HttpStatus.valueOf(restTemplate.getForEntity("http://127.0.0.1:" + port + path, String.class)
+                .getStatusCode().value());
+    }
+}
@@ -0,0 +1,117 @@
+package com.novastudy.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RateLimitFilter filter = new RateLimitFilter(properties(), new ObjectMapper(), meterRegistry);
+
+    @Test
+    void rejectsPerIpOnceTheBurstIsSpent() throws Exception {
+        assertEquals(200, login("10.0.0.1", "alice").getStatus());
+        assertEquals(200, login("10.0.0.1", "bob").getStatus());
+        assertEquals(200, login("10.0.0.1", "carol").getStatus());
+
+        MockHttpServletResponse rejected = login("10.0.0.1", "dave");
+        assertEquals(429, rejected.getStatus());
+        assertTrue(Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER)) >= 1);
+        assertTrue(rejected.getContentAsString().contains("ERR_TOO_MANY_REQUESTS"));
+        assertEquals(200, login("10.0.0.2", "dave").getStatus());
+        assertEquals(1, meterRegistry.counter("novastudy.rate_limit.rejected", "route", "login", "key", "ip").count());
+    }
+
+    @Test
+    void rejectsPerUsernameAcrossAddresses() throws Exception {
+        assertEquals(200, login("10.0.1.1", "alice").getStatus());
+        assertEquals(200, login("10.0.1.2", "alice").getStatus());
+
+        assertEquals(429, login("10.0.1.3", "alice").getStatus());
+        assertEquals(200, login("10.0.1.3", "bob").getStatus());
+        assertEquals(1, meterRegistry.counter("novastudy.rate_limit.rejected", "route", "login", "key", "username").count());
+    }
+
+    @Test
+    void limitsEveryCaseOfAUsername() throws Exception {
+        assertEquals(200, login("10.0.4.1", "Erin").getStatus());
+        assertEquals(200, login("10.0.4.2", " ERIN ").getStatus());
+
+        assertEquals(429, login("10.0.4.3", "eRiN").getStatus());
+    }
+
+    @Test
+    void matchesEncodedAndRepeatedSlashPaths() throws Exception {
+        for (String path : new String[]{"/auth/login", "/auth/%6cogin", "//auth/login/", "/auth/login;jsessionid=x"}) {
+            MockHttpServletRequest request = request("10.0.5.1", "{\"username\":\"frank-" + path.length() + "\"}");
+            request.setRequestURI(path);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertEquals(path.equals("/auth/login;jsessionid=x") ? 429 : 200, response.getStatus(), path);
+        }
+    }
+
+    @Test
+    void passesTheWholeBodyOn() throws Exception {
+        String body = "{\"password\":\"" + "x".repeat(100) + "\",\"username\":\"alice\"}";
+        MockHttpServletRequest request = request("10.0.2.1", body);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertEquals(body, new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void leavesOtherRoutesAlone() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletRequest request = request("10.0.3.1", "{}");
+            request.setRequestURI("/auth/my-account");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+        }
+    }
+
+    private MockHttpServletResponse login(String address, String username) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(address, "{\"username\":\"" + username + "\",\"password\":\"secret\"}"), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String address, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setRemoteAddr(address);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static RateLimitProperties properties() {
+        RateLimitProperties.Limit perIp = new RateLimitProperties.Limit();
+        perIp.setPermits(3);
+        perIp.setPeriod(Duration.ofHours(1));
+        RateLimitProperties.Limit perUsername = new RateLimitProperties.Limit();
+        perUsername.setPermits(2);
+        perUsername.setPeriod(Duration.ofHours(1));
+        RateLimitProperties.Route login = new RateLimitProperties.Route();
+        login.setPath("/auth/login");
+        login.setPerIp(perIp);
+        login.setPerUsername(perUsername);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxBodyBytes(32);
+        properties.getRoutes().put("login", login);
+        return properties;
+    }
+}
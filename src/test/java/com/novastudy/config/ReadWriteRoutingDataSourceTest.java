@@ -0,0 +1,72 @@
+package com.novastudy.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadWriteRoutingDataSourceTest {
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private ReadYourWritesGuard readYourWritesGuard;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("routing_primary");
+        DataSource replica = database("routing_replica");
+        DataSource routing = ReadWriteRoutingDataSource.create(primary, replica);
+
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        ReplicaDataSourceProperties properties = new ReplicaDataSourceProperties();
+        properties.setReadYourWritesWindow(Duration.ofMinutes(1));
+        readYourWritesGuard = new ReadYourWritesGuard(properties);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(16))");
+        template.execute("DELETE FROM node");
+        template.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    @Test
+    void routesByTransactionReadOnlyFlag() {
+        assertEquals("routing_primary", readWrite.execute(status -> currentNode()));
+        assertEquals("routing_replica", readOnly.execute(status -> currentNode()));
+        assertEquals("routing_primary", currentNode());
+    }
+
+    @Test
+    void recentlyWrittenKeysAreReadFromPrimary() {
+        readYourWritesGuard.markWritten("user:alice");
+
+        assertEquals("routing_primary", readOnly.execute(status -> {
+            readYourWritesGuard.routeToPrimaryIfRecentlyWritten("user:alice");
+            return currentNode();
+        }));
+        // the override ends with the transaction
+        assertEquals("routing_replica", readOnly.execute(status -> {
+            readYourWritesGuard.routeToPrimaryIfRecentlyWritten("user:bob");
+            return currentNode();
+        }));
+    }
+}
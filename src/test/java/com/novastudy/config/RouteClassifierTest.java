@@ -0,0 +1,91 @@
+package com.novastudy.config;
+
+import com.novastudy.enums.RouteAccess;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteClassifierTest {
+
+    private final RouteClassifier classifier = classifier("/", "/auth/login", "/files/*", "/docs/**",
+            "/a/b/c", "/a/*/d");
+
+    @Test
+    void matchesExactPaths() {
+        assertTrue(classifier.isPublic("/"));
+        assertTrue(classifier.isPublic("/auth/login"));
+        assertFalse(classifier.isPublic("/auth"));
+        assertFalse(classifier.isPublic("/auth/login/extra"));
+        assertFalse(classifier.isPublic("/auth/logout"));
+    }
+
+    @Test
+    void starMatchesExactlyOneSegment() {
+        assertTrue(classifier.isPublic("/files/report.pdf"));
+        assertFalse(classifier.isPublic("/files"));
+        assertFalse(classifier.isPublic("/files/2024/report.pdf"));
+    }
+
+    @Test
+    void trailingDoubleStarMatchesTheRest() {
+        assertTrue(classifier.isPublic("/docs"));
+        assertTrue(classifier.isPublic("/docs/index.html"));
+        assertTrue(classifier.isPublic("/docs/api/v1/users"));
+        assertFalse(classifier.isPublic("/documents"));
+    }
+
+    @Test
+    void fallsBackToStarWhenTheExactSegmentDoesNotMatch() {
+        assertTrue(classifier.isPublic("/a/b/c"));
+        assertTrue(classifier.isPublic("/a/b/d"));
+        assertTrue(classifier.isPublic("/a/x/d"));
+        assertFalse(classifier.isPublic("/a/x/c"));
+        assertFalse(classifier.isPublic("/a/b/e"));
+    }
+
+    @Test
+    void rejectsDoubleStarBeforeTheLastSegment() {
+        assertThrows(IllegalArgumentException.class, () -> classifier("/a/**/b"));
+        assertDoesNotThrow(() -> classifier("/a/**/"));
+    }
+
+    @Test
+    void ignoresTrailingAndRepeatedSlashes() {
+        assertTrue(classifier.isPublic("/auth/login/"));
+        assertTrue(classifier.isPublic("//auth//login"));
+        assertTrue(classifier.isPublic(""));
+    }
+
+    @Test
+    void stripsTheContextPath() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setContextPath("/api");
+        assertEquals(RouteAccess.PUBLIC, classifier.classify(request));
+
+        MockHttpServletRequest unprefixed = new MockHttpServletRequest("POST", "/api/auth/login");
+        assertEquals(RouteAccess.AUTHENTICATED, classifier.classify(unprefixed));
+        assertTrue(classifier.requiresAuthentication(unprefixed));
+    }
+
+    @Test
+    void detectsPreflightRequests() {
+        MockHttpServletRequest preflight = new MockHttpServletRequest("OPTIONS", "/users/me");
+        preflight.addHeader(HttpHeaders.ORIGIN, "https://app.example.com");
+        preflight.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET");
+        assertEquals(RouteAccess.PREFLIGHT, classifier.classify(preflight));
+
+        MockHttpServletRequest plainOptions = new MockHttpServletRequest("OPTIONS", "/users/me");
+        plainOptions.addHeader(HttpHeaders.ORIGIN, "https://app.example.com");
+        assertEquals(RouteAccess.AUTHENTICATED, classifier.classify(plainOptions));
+    }
+
+    private static RouteClassifier classifier(String... publicPaths) {
+        RouteProperties properties = new RouteProperties();
+        properties.setPublicPaths(List.of(publicPaths));
+        return new RouteClassifier(properties);
+    }
+}
@@ -0,0 +1,59 @@
+package com.novastudy.config;
+
+import com.novastudy.service.AuthorityRegistry;
+import com.novastudy.service.AuthoritySet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(tokenProperties());
+    private final AuthoritySet authorities = new AuthorityRegistry(new SimpleMeterRegistry()).intern(List.of("ROLE_USER"));
+
+    private static TokenProperties tokenProperties() {
+        TokenProperties tokenProperties = new TokenProperties();
+        tokenProperties.setVerifiedTokenCacheSize(100);
+        return tokenProperties;
+    }
+
+    private static Jwt jwt(Instant expiresAt) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("alice")
+                .issuedAt(Instant.now().minusSeconds(1))
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    @Test
+    void everyRequestGetsItsOwnAuthentication() {
+        Jwt jwt = jwt(Instant.now().plusSeconds(60));
+        cache.put(new byte[]{1}, new InternedJwtAuthenticationToken(jwt, authorities));
+
+        InternedJwtAuthenticationToken first = cache.get(new byte[]{1});
+        first.setDetails(new WebAuthenticationDetails(new MockHttpServletRequest()));
+        InternedJwtAuthenticationToken second = cache.get(new byte[]{1});
+
+        assertNotSame(first, second);
+        assertNull(second.getDetails());
+        assertTrue(second.isAuthenticated());
+        assertSame(jwt, second.getToken());
+        assertSame(authorities, second.getAuthorities());
+        assertEquals("alice", second.getName());
+    }
+
+    @Test
+    void neverOutlivesTheToken() {
+        cache.put(new byte[]{2}, new InternedJwtAuthenticationToken(jwt(Instant.now().minusMillis(1)), authorities));
+
+        assertNull(cache.get(new byte[]{2}));
+    }
+}
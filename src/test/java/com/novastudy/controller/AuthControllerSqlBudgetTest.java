@@ -0,0 +1,89 @@
+package com.novastudy.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novastudy.repository.PermissionRepository;
+import com.novastudy.repository.RoleRepository;
+import com.novastudy.support.AuthFixture;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+
+import static com.novastudy.support.SqlStatementBudget.assertAtMost;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthControllerSqlBudgetTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private AuthFixture auth;
+
+    @BeforeEach
+    void setUp() {
+        AuthFixture.createUserRole(roleRepository, permissionRepository);
+        auth = new AuthFixture(mockMvc, objectMapper);
+    }
+
+    @Test
+    void authEndpointsStayWithinStatementBudget() throws Exception {
+        auth.register("budget_user");
+
+        MvcResult login = auth.loginResult("budget_user");
+        // user with roles, authority snapshot on first use, refresh token insert
+        assertAtMost(login, 3);
+
+        JsonNode data = auth.data(login);
+        MvcResult myAccount = mockMvc.perform(get("/auth/my-account")
+                        .header("Authorization", "Bearer " + data.get("accessToken").asText()))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertAtMost(myAccount, 1);
+
+        MvcResult refresh = mockMvc.perform(get("/auth/refresh-token")
+                        .cookie(new Cookie("refresh_token", data.get("refreshToken").asText())))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertAtMost(refresh, 1);
+    }
+
+    @Test
+    void duplicateRegistrationIsRejectedBeforeHashing() throws Exception {
+        auth.register("taken_user");
+        Timer encodeTimer = meterRegistry.get("novastudy.password.hashing.duration").tag("operation", "encode").timer();
+        long encodes = encodeTimer.count();
+
+        MvcResult duplicate = mockMvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content(auth.json(Map.of("username", "taken_user", "password", AuthFixture.PASSWORD,
+                                "email", "other@novastudy.com"))))
+                .andExpect(status().isConflict())
+                .andReturn();
+        // one existence check, no insert and no bcrypt
+        assertAtMost(duplicate, 1);
+        assertEquals(encodes, encodeTimer.count());
+    }
+}
@@ -0,0 +1,61 @@
+package com.novastudy.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novastudy.repository.PermissionRepository;
+import com.novastudy.repository.RoleRepository;
+import com.novastudy.support.AuthFixture;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "novastudy.jwt.refresh-reuse-window=0s")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LogoutAllTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Test
+    void loginRightAfterLogoutAllKeepsItsTokens() throws Exception {
+        AuthFixture.createUserRole(roleRepository, permissionRepository);
+        AuthFixture auth = new AuthFixture(mockMvc, objectMapper);
+        auth.register("logout_all_user");
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            JsonNode before = auth.login("logout_all_user");
+            mockMvc.perform(post("/auth/logout-all")
+                            .header("Authorization", "Bearer " + before.get("accessToken").asText()))
+                    .andExpect(status().isOk());
+            JsonNode after = auth.login("logout_all_user");
+
+            // usually within the same second as the logout-all
+            mockMvc.perform(get("/auth/my-account")
+                            .header("Authorization", "Bearer " + after.get("accessToken").asText()))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/auth/refresh-token")
+                            .cookie(new Cookie("refresh_token", after.get("refreshToken").asText())))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/auth/my-account")
+                            .header("Authorization", "Bearer " + before.get("accessToken").asText()))
+                    .andExpect(status().isUnauthorized());
+            mockMvc.perform(get("/auth/refresh-token")
+                            .cookie(new Cookie("refresh_token", before.get("refreshToken").asText())))
+                    .andExpect(status().isUnauthorized());
+        }
+    }
+}
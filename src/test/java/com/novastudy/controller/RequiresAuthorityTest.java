@@ -0,0 +1,49 @@
+package com.novastudy.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novastudy.entity.Role;
+import com.novastudy.repository.RoleRepository;
+import com.novastudy.support.AuthFixture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashSet;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// child contexts (the management server, or any created later) must not drop the rules of the main one
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequiresAuthorityTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void protectedEndpointIsForbiddenWithoutTheAuthority() throws Exception {
+        try (GenericApplicationContext child = new GenericApplicationContext(applicationContext)) {
+            child.refresh();
+        }
+        // ROLE_USER without VIEW_PROFILE, so AuthFixture.createUserRole is not used
+        roleRepository.save(Role.builder().name("ROLE_USER").permissions(new HashSet<>()).build());
+        AuthFixture auth = new AuthFixture(mockMvc, objectMapper);
+        auth.register("no_profile_user");
+        String accessToken = auth.accessToken("no_profile_user");
+
+        mockMvc.perform(get("/auth/my-account").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,113 @@
+package com.novastudy.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novastudy.entity.Permission;
+import com.novastudy.entity.Role;
+import com.novastudy.enums.TokenStatus;
+import com.novastudy.repository.PermissionRepository;
+import com.novastudy.repository.RefreshTokenRepository;
+import com.novastudy.repository.RoleRepository;
+import com.novastudy.repository.UserRepository;
+import com.novastudy.service.RevokedSessionRegistry;
+import com.novastudy.support.AuthFixture;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.novastudy.support.SqlStatementBudget.assertAtMost;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "novastudy.jwt.stateless-refresh=true",
+        "novastudy.jwt.refresh-reuse-window=0s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatelessRefreshTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private RevokedSessionRegistry revokedSessionRegistry;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private AuthFixture auth;
+
+    @BeforeEach
+    void setUp() {
+        AuthFixture.createUserRole(roleRepository, permissionRepository);
+        auth = new AuthFixture(mockMvc, objectMapper);
+    }
+
+    @Test
+    void refreshNeedsNoDatabaseAndHonoursRevocations() throws Exception {
+        auth.register("stateless_user");
+
+        JsonNode session = auth.login("stateless_user");
+        MvcResult refresh = refresh(session).andExpect(status().isOk()).andReturn();
+        assertAtMost(refresh, 0);
+
+        // logout on this instance is seen immediately
+        mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Bearer " + session.get("accessToken").asText())
+                        .cookie(new Cookie("refresh_token", session.get("refreshToken").asText())))
+                .andExpect(status().isOk());
+        refresh(session).andExpect(status().isUnauthorized());
+
+        // a revocation written by another instance arrives with the next poll
+        JsonNode otherSession = auth.login("stateless_user");
+        refresh(otherSession).andExpect(status().isOk());
+        refreshTokenRepository.updateStatusByUsername("stateless_user", TokenStatus.INVALID, LocalDateTime.now());
+        revokedSessionRegistry.refresh();
+        refresh(otherSession).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void roleChangeIsNotRefreshedFromTheTokenRoles() throws Exception {
+        auth.register("stateless_grader");
+        JsonNode session = auth.login("stateless_grader");
+        refresh(session).andExpect(status().isOk());
+
+        Permission permission = permissionRepository.save(Permission.builder().name("GRADE_EXAMS").build());
+        Role grader = roleRepository.save(Role.builder().name("ROLE_GRADER").permissions(new HashSet<>(Set.of(permission))).build());
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findWithRolesByUsername("stateless_grader").orElseThrow().getRoles().add(grader));
+
+        MvcResult refresh = refresh(session).andExpect(status().isOk()).andReturn();
+        String accessToken = auth.data(refresh).get("accessToken").asText();
+        JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(accessToken.split("\\.")[1]));
+        assertTrue(claims.get("authorities").toString().contains("GRADE_EXAMS"), claims::toString);
+    }
+
+    private ResultActions refresh(JsonNode session) throws Exception {
+        return mockMvc.perform(get("/auth/refresh-token")
+                .cookie(new Cookie("refresh_token", session.get("refreshToken").asText())));
+    }
+}
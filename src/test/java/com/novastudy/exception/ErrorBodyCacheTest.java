@@ -0,0 +1,71 @@
+package com.novastudy.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.novastudy.enums.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorBodyCacheTest {
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void matchesJacksonSerializedErrorResponse() throws Exception {
+        LocalDateTime timestamp = LocalDateTime.of(2026, 3, 1, 12, 30, 5, 120_000_000);
+        assertSameAsJackson(ErrorCode.INVALID_CREDENTIALS, ErrorCode.INVALID_CREDENTIALS.getMessage(), "/auth/login", timestamp);
+        assertSameAsJackson(ErrorCode.CONFLICT, "Username already exists", "/auth/register", timestamp);
+        assertSameAsJackson(ErrorCode.UNAUTHORIZED, "quote \" backslash \\ newline \n é", "/auth/\"x\"", timestamp.withNano(0));
+        assertSameAsJackson(ErrorCode.FORBIDDEN, null, null, timestamp.withNano(5));
+    }
+
+    @Test
+    void reusesRenderedMessages() {
+        LocalDateTime timestamp = LocalDateTime.now();
+        byte[] first = ErrorBodyCache.render(ErrorCode.CONFLICT, "Email already exists", "/a", timestamp);
+        byte[] second = ErrorBodyCache.render(ErrorCode.CONFLICT, "Email already exists", "/b", timestamp);
+
+        assertEquals(first.length, second.length);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void writesStatusAndLength() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ErrorBodyCache.write(response, ErrorCode.TOKEN_REVOKED, ErrorCode.TOKEN_REVOKED.getMessage(), "/auth/my-account");
+
+        assertEquals(401, response.getStatus());
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+        assertTrue(response.getContentType().startsWith("application/json"));
+        assertEquals("ERR_TOKEN_REVOKED", mapper.readTree(response.getContentAsByteArray()).get("errorCode").asText());
+    }
+
+    @Test
+    void onlyServerErrorsCarryStackTraces() {
+        assertEquals(0, AppException.unauthorized("Refresh token is not valid").getStackTrace().length);
+        assertEquals(0, AppException.conflict().getStackTrace().length);
+        assertTrue(AppException.internalServerError().getStackTrace().length > 0);
+    }
+
+    private void assertSameAsJackson(ErrorCode errorCode, String message, String path, LocalDateTime timestamp) throws Exception {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .status(errorCode.getHttpStatus().value())
+                .message(message)
+                .path(path)
+                .errorCode(errorCode.getErrorCode())
+                .timestamp(timestamp)
+                .build();
+
+        assertEquals(mapper.writeValueAsString(errorResponse),
+                new String(ErrorBodyCache.render(errorCode, message, path, timestamp), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,79 @@
+package com.novastudy.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+// thin HTTP client for the /auth endpoints
+public final class AuthClient {
+    public record Session(String accessToken, String refreshToken) {
+    }
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+
+    public AuthClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public boolean register(String username, String password) throws Exception {
+        return postJson("/auth/register", Map.of("username", username, "password", password, "email", username + "@perf.local"))
+                .statusCode() == 200;
+    }
+
+    // null when the login was rejected
+    public Session login(String username, String password) throws Exception {
+        HttpResponse<String> response = postJson("/auth/login", Map.of("username", username, "password", password));
+        if (response.statusCode() != 200) {
+            return null;
+        }
+        JsonNode data = objectMapper.readTree(response.body()).get("data");
+        return new Session(data.get("accessToken").asText(), data.get("refreshToken").asText());
+    }
+
+    public boolean refresh(Session session) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/refresh-token"))
+                .header("Cookie", "refresh_token=" + session.refreshToken())
+                .GET()
+                .build();
+        return send(request) == 200;
+    }
+
+    public boolean myAccount(Session session) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/my-account"))
+                .header("Authorization", "Bearer " + session.accessToken())
+                .GET()
+                .build();
+        return send(request) == 200;
+    }
+
+    public boolean logout(Session session) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/logout"))
+                .header("Authorization", "Bearer " + session.accessToken())
+                .header("Cookie", "refresh_token=" + session.refreshToken())
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return send(request) == 200;
+    }
+
+    private HttpResponse<String> postJson(String path, Map<String, String> body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,99 @@
+package com.novastudy.perf;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// drives a realistic mix of the auth endpoints at a fixed arrival rate and reports latency per endpoint
+// run with: mvn test -Pbenchmark -Dtest=AuthLoadTest [-Dload.rate=500 -Dload.seconds=60 -Dload.users=10000]
+@Tag("benchmark")
+class AuthLoadTest {
+    private static final int USERS = Integer.getInteger("load.users", 1000);
+    private static final int SESSIONS = Integer.getInteger("load.sessions", 200);
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "200"));
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("load.warmup-seconds", 10));
+    private static final Duration MEASURE = Duration.ofSeconds(Integer.getInteger("load.seconds", 30));
+    // percentages of register/login/refresh-token/my-account/logout
+    private static final List<Integer> MIX = parseMix(System.getProperty("load.mix", "2,8,15,70,5"));
+
+    @Test
+    void authEndpointMix() throws Exception {
+        try (PerfServer server = PerfServer.start("auth_load", Map.of())) {
+            List<String> usernames = PerfSeeder.seedUsers(server.getBean(JdbcTemplate.class), server.getBean(PasswordEncoder.class), USERS);
+            AuthClient client = new AuthClient(server.getBaseUrl());
+
+            // logged-in sessions shared by the refresh, my-account and logout operations
+            AtomicReferenceArray<AuthClient.Session> sessions = new AtomicReferenceArray<>(SESSIONS);
+            for (int i = 0; i < SESSIONS; i++) {
+                sessions.set(i, client.login(usernames.get(i % usernames.size()), PerfSeeder.PASSWORD));
+            }
+            AtomicInteger registered = new AtomicInteger();
+            AtomicInteger nextSlot = new AtomicInteger();
+
+            List<OpenLoopDriver.WeightedOperation> mix = List.of(
+                    new OpenLoopDriver.WeightedOperation("/auth/register", MIX.get(0),
+                            () -> client.register("load_user_" + registered.incrementAndGet(), PerfSeeder.PASSWORD)),
+                    new OpenLoopDriver.WeightedOperation("/auth/login", MIX.get(1), () -> {
+                        AuthClient.Session session = client.login(randomUser(usernames), PerfSeeder.PASSWORD);
+                        if (session == null) {
+                            return false;
+                        }
+                        sessions.set(Math.floorMod(nextSlot.getAndIncrement(), SESSIONS), session);
+                        return true;
+                    }),
+                    new OpenLoopDriver.WeightedOperation("/auth/refresh-token", MIX.get(2),
+                            () -> client.refresh(anySession(sessions))),
+                    new OpenLoopDriver.WeightedOperation("/auth/my-account", MIX.get(3),
+                            () -> client.myAccount(anySession(sessions))),
+                    new OpenLoopDriver.WeightedOperation("/auth/logout", MIX.get(4), () -> {
+                        // take the session out so no other operation reuses a revoked token
+                        int slot = ThreadLocalRandom.current().nextInt(SESSIONS);
+                        AuthClient.Session session = sessions.getAndSet(slot, null);
+                        if (session == null) {
+                            session = client.login(randomUser(usernames), PerfSeeder.PASSWORD);
+                        }
+                        return session != null && client.logout(session);
+                    }));
+
+            OpenLoopDriver driver = new OpenLoopDriver();
+            driver.run(RATE, WARMUP, mix);
+            Map<String, LatencyStats> results = driver.run(RATE, MEASURE, mix);
+
+            System.out.printf("%nAuth load test: %.0f req/s for %ds, %d users, mix %s%n", RATE, MEASURE.toSeconds(), USERS, MIX);
+            results.forEach((endpoint, stats) -> System.out.println(stats.format(endpoint, MEASURE.toSeconds())));
+        }
+    }
+
+    private static String randomUser(List<String> usernames) {
+        return usernames.get(ThreadLocalRandom.current().nextInt(usernames.size()));
+    }
+
+    // a logged-out slot is refilled by the next login, until then pick another one
+    private static AuthClient.Session anySession(AtomicReferenceArray<AuthClient.Session> sessions) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < sessions.length(); attempt++) {
+            AuthClient.Session session = sessions.get(random.nextInt(sessions.length()));
+            if (session != null) {
+                return session;
+            }
+        }
+        throw new IllegalStateException("No logged-in session available");
+    }
+
+    private static List<Integer> parseMix(String mix) {
+        List<Integer> weights = Arrays.stream(mix.split(",")).map(String::trim).map(Integer::valueOf).toList();
+        if (weights.size() != 5) {
+            throw new IllegalArgumentException("load.mix needs five weights: register,login,refresh-token,my-account,logout");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,43 @@
+package com.novastudy.perf;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+// a fixed number of clients, each sending its next request as soon as the previous one completes
+public final class ClosedLoopDriver {
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public LatencyStats run(int clients, Duration duration, IntFunction<HttpRequest> requestForClient) throws InterruptedException {
+        LatencyStats stats = new LatencyStats();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < clients; client++) {
+                int clientId = client;
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        boolean success;
+                        try {
+                            HttpResponse<Void> response = httpClient.send(requestForClient.apply(clientId), HttpResponse.BodyHandlers.discarding());
+                            success = response.statusCode() == 200;
+                        } catch (Exception e) {
+                            success = false;
+                        }
+                        stats.record(System.nanoTime() - start, success);
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        }
+        return stats;
+    }
+}
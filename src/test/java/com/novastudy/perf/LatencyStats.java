@@ -0,0 +1,45 @@
+package com.novastudy.perf;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// latency samples of one endpoint over one run
+public final class LatencyStats {
+    private long[] samples = new long[1024];
+    private int count;
+    private int errors;
+
+    public synchronized void record(long nanos, boolean success) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized int getErrors() {
+        return errors;
+    }
+
+    public synchronized double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.min(count - 1, Math.ceil(percentile / 100.0 * count) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    public String format(String label, double seconds) {
+        return String.format(Locale.ROOT, "%-28s count=%-8d errors=%-6d rps=%-10.1f p50=%-8.2fms p99=%-8.2fms p999=%.2fms",
+                label, getCount(), getErrors(), getCount() / seconds,
+                percentileMillis(50), percentileMillis(99), percentileMillis(99.9));
+    }
+}
@@ -0,0 +1,70 @@
+package com.novastudy.perf;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// issues operations at a fixed arrival rate regardless of how fast the server answers; latency is measured
+// from the scheduled start so a slow server cannot hide its queueing delay (no coordinated omission)
+public final class OpenLoopDriver {
+
+    public interface Operation {
+        // returns true when the response was the expected one
+        boolean execute() throws Exception;
+    }
+
+    public record WeightedOperation(String name, int weight, Operation operation) {
+    }
+
+    public Map<String, LatencyStats> run(double requestsPerSecond, Duration duration, List<WeightedOperation> mix) throws InterruptedException {
+        Map<String, LatencyStats> stats = new TreeMap<>();
+        int totalWeight = 0;
+        for (WeightedOperation weighted : mix) {
+            stats.put(weighted.name(), new LatencyStats());
+            totalWeight += weighted.weight();
+        }
+
+        long intervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long scheduled = start; scheduled < end; scheduled += intervalNanos) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                WeightedOperation weighted = pick(mix, ThreadLocalRandom.current().nextInt(totalWeight));
+                LatencyStats endpointStats = stats.get(weighted.name());
+                long scheduledStart = scheduled;
+                executor.submit(() -> {
+                    boolean success;
+                    try {
+                        success = weighted.operation().execute();
+                    } catch (Exception e) {
+                        success = false;
+                    }
+                    endpointStats.record(System.nanoTime() - scheduledStart, success);
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(60, TimeUnit.SECONDS);
+        }
+        return stats;
+    }
+
+    private static WeightedOperation pick(List<WeightedOperation> mix, int roll) {
+        for (WeightedOperation weighted : mix) {
+            roll -= weighted.weight();
+            if (roll < 0) {
+                return weighted;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+}
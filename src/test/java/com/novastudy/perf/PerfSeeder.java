@@ -0,0 +1,48 @@
+package com.novastudy.perf;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// inserts roles with their permissions and N users sharing one password hash
+public final class PerfSeeder {
+    public static final String PASSWORD = "perf-password";
+    private static final List<String> ROLES = List.of("ROLE_USER", "ROLE_ADMIN");
+    private static final List<String> PERMISSIONS = List.of("VIEW_PROFILE", "VIEW_COURSE", "EDIT_COURSE", "MANAGE_USERS");
+
+    private PerfSeeder() {
+    }
+
+    public static List<String> seedUsers(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (String permission : PERMISSIONS) {
+            jdbcTemplate.update("INSERT INTO permissions (name, created_at, updated_at) VALUES (?, ?, ?)", permission, now, now);
+        }
+        for (String role : ROLES) {
+            jdbcTemplate.update("INSERT INTO roles (name, created_at, updated_at) VALUES (?, ?, ?)", role, now, now);
+        }
+        // every permission for admins, the first two for users
+        jdbcTemplate.update("INSERT INTO role_permissions (role_id, permission_id) " +
+                "SELECT r.id, p.id FROM roles r CROSS JOIN permissions p " +
+                "WHERE r.name = 'ROLE_ADMIN' OR p.name IN ('VIEW_PROFILE', 'VIEW_COURSE')");
+        Long roleId = jdbcTemplate.queryForObject("SELECT id FROM roles WHERE name = 'ROLE_USER'", Long.class);
+
+        // hashing once keeps seeding fast even for large user counts
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        List<String> usernames = new ArrayList<>(count);
+        List<Object[]> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String username = "perf_user_" + i;
+            usernames.add(username);
+            users.add(new Object[]{UUID.randomUUID().toString(), username, passwordHash, username + "@perf.local", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password, email, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)", users);
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) SELECT id, ? FROM users WHERE username LIKE 'perf_user_%'", roleId);
+        return usernames;
+    }
+}
@@ -0,0 +1,43 @@
+package com.novastudy.perf;
+
+import com.novastudy.NovaStudyApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// boots the application on a random port against its own in-memory database
+public final class PerfServer implements AutoCloseable {
+    private final ConfigurableApplicationContext context;
+    private final String baseUrl;
+
+    private PerfServer(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    public static PerfServer start(String name, Map<String, String> properties) {
+        List<String> args = new ArrayList<>();
+        args.add("--spring.profiles.active=perf");
+        args.add("--server.port=0");
+        args.add("--management.server.port=0");
+        args.add("--spring.datasource.url=jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        properties.forEach((key, value) -> args.add("--" + key + "=" + value));
+        return new PerfServer(new SpringApplicationBuilder(NovaStudyApplication.class).run(args.toArray(String[]::new)));
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
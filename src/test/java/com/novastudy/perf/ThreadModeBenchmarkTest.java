@@ -0,0 +1,68 @@
+package com.novastudy.perf;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+// compares platform and virtual request threads on the authenticated read paths
+// run with: mvn test -Pbenchmark -Dtest=ThreadModeBenchmarkTest [-Dbenchmark.clients=400 -Dbenchmark.seconds=20]
+@Tag("benchmark")
+class ThreadModeBenchmarkTest {
+    private static final int USERS = Integer.getInteger("benchmark.users", 50);
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 400);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("benchmark.warmup-seconds", 5));
+    private static final Duration MEASURE = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 15));
+    private static final String TOMCAT_THREADS = System.getProperty("benchmark.tomcat-threads", "200");
+
+    @Test
+    void compareThreadModes() throws Exception {
+        List<String> report = new ArrayList<>();
+        report.addAll(runMode("platform", false));
+        report.addAll(runMode("virtual", true));
+
+        System.out.printf("%nThread mode benchmark: %d clients, %d users, %ds per endpoint, tomcat threads %s%n",
+                CLIENTS, USERS, MEASURE.toSeconds(), TOMCAT_THREADS);
+        report.forEach(System.out::println);
+    }
+
+    private List<String> runMode(String mode, boolean virtualThreads) throws Exception {
+        try (PerfServer server = PerfServer.start("thread_mode_" + mode, Map.of(
+                "spring.threads.virtual.enabled", String.valueOf(virtualThreads),
+                "server.tomcat.threads.max", TOMCAT_THREADS))) {
+            List<String> usernames = PerfSeeder.seedUsers(server.getBean(JdbcTemplate.class), server.getBean(PasswordEncoder.class), USERS);
+            ClosedLoopDriver driver = new ClosedLoopDriver();
+            AuthClient authClient = new AuthClient(server.getBaseUrl());
+            List<AuthClient.Session> sessions = new ArrayList<>();
+            for (String username : usernames) {
+                sessions.add(authClient.login(username, PerfSeeder.PASSWORD));
+            }
+
+            URI myAccount = URI.create(server.getBaseUrl() + "/auth/my-account");
+            URI refreshToken = URI.create(server.getBaseUrl() + "/auth/refresh-token");
+            IntFunction<HttpRequest> myAccountRequest = client -> HttpRequest.newBuilder(myAccount)
+                    .header("Authorization", "Bearer " + sessions.get(client % sessions.size()).accessToken())
+                    .GET().build();
+            IntFunction<HttpRequest> refreshRequest = client -> HttpRequest.newBuilder(refreshToken)
+                    .header("Cookie", "refresh_token=" + sessions.get(client % sessions.size()).refreshToken())
+                    .GET().build();
+
+            driver.run(CLIENTS, WARMUP, myAccountRequest);
+            LatencyStats myAccountStats = driver.run(CLIENTS, MEASURE, myAccountRequest);
+            driver.run(CLIENTS, WARMUP, refreshRequest);
+            LatencyStats refreshStats = driver.run(CLIENTS, MEASURE, refreshRequest);
+
+            return List.of(
+                    myAccountStats.format(mode + " /auth/my-account", MEASURE.toSeconds()),
+                    refreshStats.format(mode + " /auth/refresh-token", MEASURE.toSeconds()));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.novastudy.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+// the configured MySQL-mode database, the upsert is MySQL syntax
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class TokenBlacklistRepositoryTest {
+    @Autowired
+    private TokenBlacklistRepository tokenBlacklistRepository;
+
+    @Test
+    void secondRevocationOfTheSameJtiIsSkipped() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(10);
+
+        tokenBlacklistRepository.insertIfAbsent("jti-1", LocalDateTime.now(), expiresAt);
+        tokenBlacklistRepository.insertIfAbsent("jti-1", LocalDateTime.now(), expiresAt);
+
+        assertThat(tokenBlacklistRepository.findByJti("jti-1")).isPresent();
+        assertThat(tokenBlacklistRepository.count()).isEqualTo(1);
+    }
+}
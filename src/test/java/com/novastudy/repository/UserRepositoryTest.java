@@ -0,0 +1,89 @@
+package com.novastudy.repository;
+
+import com.novastudy.entity.Permission;
+import com.novastudy.entity.RefreshToken;
+import com.novastudy.entity.Role;
+import com.novastudy.entity.User;
+import com.novastudy.enums.TokenStatus;
+import com.novastudy.utils.TokenDigestUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Permission viewProfile = entityManager.persist(Permission.builder().name("VIEW_PROFILE").build());
+        Permission editProfile = entityManager.persist(Permission.builder().name("EDIT_PROFILE").build());
+        Role userRole = entityManager.persist(Role.builder()
+                .name("ROLE_USER")
+                .permissions(new HashSet<>(Set.of(viewProfile, editProfile)))
+                .build());
+        Role adminRole = entityManager.persist(Role.builder()
+                .name("ROLE_ADMIN")
+                .permissions(new HashSet<>(Set.of(viewProfile)))
+                .build());
+        User user = entityManager.persist(User.builder()
+                .username("alice")
+                .password("secret")
+                .email("alice@novastudy.com")
+                .roles(new HashSet<>(Set.of(userRole, adminRole)))
+                .build());
+        entityManager.persist(RefreshToken.builder()
+                .user(user)
+                .tokenHash(TokenDigestUtil.sha256("refresh-token"))
+                .sessionId("session")
+                .status(TokenStatus.VALID)
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findWithRolesByUsernameLoadsUserAndRolesInOneStatement() {
+        User user = userRepository.findWithRolesByUsername("alice").orElseThrow();
+
+        assertThat(user.getRoles().stream().map(Role::getName).collect(Collectors.toSet()))
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findWithUserByTokenHashLoadsTokenUserAndRolesInOneStatement() {
+        RefreshToken token = refreshTokenRepository.findWithUserByTokenHash(TokenDigestUtil.sha256("refresh-token")).orElseThrow();
+
+        assertThat(token.getUser().getUsername()).isEqualTo("alice");
+        assertThat(token.getUser().getRoles()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
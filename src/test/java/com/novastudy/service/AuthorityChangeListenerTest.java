@@ -0,0 +1,63 @@
+package com.novastudy.service;
+
+import com.novastudy.entity.Permission;
+import com.novastudy.entity.Role;
+import com.novastudy.repository.PermissionRepository;
+import com.novastudy.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthorityChangeListenerTest {
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private AuthoritySnapshotCache authoritySnapshotCache;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void grantIsVisibleAfterCommitEvenWhenReadMidTransaction() {
+        Permission permission = permissionRepository.save(Permission.builder().name("GRADE_EXAMS").build());
+        Long roleId = roleRepository.save(Role.builder().name("ROLE_GRADER").permissions(new HashSet<>()).build()).getId();
+        assertEquals(Set.of("ROLE_GRADER"), authoritySnapshotCache.resolve(Set.of(roleId)));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Role role = roleRepository.findById(roleId).orElseThrow();
+            role.getPermissions().add(permission);
+            roleRepository.flush();
+            // another request reloads while the grant is flushed but not committed
+            assertEquals(Set.of("ROLE_GRADER"), CompletableFuture
+                    .supplyAsync(() -> authoritySnapshotCache.resolve(Set.of(roleId))).join());
+        });
+
+        assertEquals(Set.of("ROLE_GRADER", "GRADE_EXAMS"), authoritySnapshotCache.resolve(Set.of(roleId)));
+    }
+
+    @Test
+    void rolledBackGrantIsNeverVisible() {
+        Permission permission = permissionRepository.save(Permission.builder().name("PUBLISH_COURSES").build());
+        Long roleId = roleRepository.save(Role.builder().name("ROLE_PUBLISHER").permissions(new HashSet<>()).build()).getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Role role = roleRepository.findById(roleId).orElseThrow();
+            role.getPermissions().add(permission);
+            roleRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertEquals(Set.of("ROLE_PUBLISHER"), authoritySnapshotCache.resolve(Set.of(roleId)));
+    }
+}
@@ -0,0 +1,41 @@
+package com.novastudy.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthorityRegistryTest {
+
+    private final AuthorityRegistry registry = new AuthorityRegistry(new SimpleMeterRegistry());
+
+    @Test
+    void sharesOneSetPerCombination() {
+        AuthoritySet fromLogin = registry.intern(Set.of("ROLE_USER", "VIEW_PROFILE"));
+
+        assertSame(fromLogin, registry.intern(new ArrayList<>(List.of("VIEW_PROFILE", "ROLE_USER"))));
+        assertSame(fromLogin, registry.intern(new ArrayList<>(List.of("ROLE_USER", "VIEW_PROFILE"))));
+        assertNotSame(fromLogin, registry.intern(List.of("ROLE_ADMIN")));
+    }
+
+    @Test
+    void answersMembershipByName() {
+        AuthoritySet authorities = registry.intern(List.of("ROLE_USER", "VIEW_PROFILE", "ROLE_USER"));
+
+        assertEquals(2, authorities.size());
+        assertTrue(authorities.hasAuthority("VIEW_PROFILE"));
+        assertFalse(authorities.hasAuthority("MANAGE_USERS"));
+        assertTrue(authorities.contains(new SimpleGrantedAuthority("ROLE_USER")));
+        assertThrows(UnsupportedOperationException.class, () -> authorities.add(new SimpleGrantedAuthority("MANAGE_USERS")));
+    }
+
+    @Test
+    void rejectsNonStringClaims() {
+        assertThrows(IllegalArgumentException.class, () -> registry.intern(List.of("ROLE_USER", 1)));
+    }
+}
@@ -0,0 +1,80 @@
+package com.novastudy.service;
+
+import com.novastudy.entity.Permission;
+import com.novastudy.entity.Role;
+import com.novastudy.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthoritySnapshotCacheTest {
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final AuthoritySnapshotCache cache = new AuthoritySnapshotCache(roleRepository);
+
+    private static List<Role> roles(String... permissions) {
+        Set<Permission> granted = new HashSet<>();
+        for (int i = 0; i < permissions.length; i++) {
+            granted.add(Permission.builder().id((long) i + 1).name(permissions[i]).build());
+        }
+        return List.of(Role.builder().id(1L).name("ROLE_USER").permissions(granted).build());
+    }
+
+    @Test
+    void unknownIndexVersionReloadsOnlyOnce() {
+        when(roleRepository.findAllWithPermissions()).thenReturn(roles("VIEW_PROFILE"));
+        long current = cache.getPermissionIndex().getVersion();
+
+        for (int i = 0; i < 5; i++) {
+            assertNull(cache.findPermissionIndex(current + 1));
+        }
+        assertNotNull(cache.findPermissionIndex(current));
+        // the initial load and one reload for the unknown version
+        verify(roleRepository, times(2)).findAllWithPermissions();
+    }
+
+    @Test
+    void unknownIndexVersionIsFoundOnceAnotherInstanceLoadedIt() {
+        when(roleRepository.findAllWithPermissions()).thenReturn(roles("VIEW_PROFILE"));
+        cache.getPermissionIndex();
+
+        when(roleRepository.findAllWithPermissions()).thenReturn(roles("VIEW_PROFILE", "EDIT_PROFILE"));
+        long newer = new PermissionIndex(List.of("ROLE_USER", "VIEW_PROFILE", "EDIT_PROFILE")).getVersion();
+        assertNotNull(cache.findPermissionIndex(newer));
+    }
+
+    @Test
+    void invalidateWithoutChangeKeepsThePreviousIndex() {
+        when(roleRepository.findAllWithPermissions()).thenReturn(roles("VIEW_PROFILE"));
+        long first = cache.getPermissionIndex().getVersion();
+
+        when(roleRepository.findAllWithPermissions()).thenReturn(roles("VIEW_PROFILE", "EDIT_PROFILE"));
+        cache.invalidate();
+        long second = cache.getPermissionIndex().getVersion();
+        assertNotEquals(first, second);
+
+        // nothing changed, tokens stamped with the first index still decode
+        cache.invalidate();
+        assertEquals(second, cache.getPermissionIndex().getVersion());
+        assertNotNull(cache.findPermissionIndex(first));
+    }
+
+    @Test
+    void loadOverlappingAnInvalidateIsNotKept() {
+        when(roleRepository.findAllWithPermissions())
+                .thenAnswer(invocation -> {
+                    // the change commits while this load is reading
+                    cache.invalidate();
+                    return roles("VIEW_PROFILE");
+                })
+                .thenReturn(roles("VIEW_PROFILE", "EDIT_PROFILE"));
+
+        assertEquals(Set.of("ROLE_USER", "VIEW_PROFILE"), cache.resolve(Set.of(1L)));
+        assertEquals(Set.of("ROLE_USER", "VIEW_PROFILE", "EDIT_PROFILE"), cache.resolve(Set.of(1L)));
+    }
+}
@@ -0,0 +1,52 @@
+package com.novastudy.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermissionIndexTest {
+
+    private final PermissionIndex index = new PermissionIndex(List.of(
+            "ROLE_USER", "ROLE_ADMIN", "VIEW_PROFILE", "VIEW_COURSE", "EDIT_COURSE",
+            "MANAGE_USERS", "EXPORT_REPORTS", "IMPORT_USERS", "DELETE_COURSE"));
+
+    @Test
+    void decodesWhatWasEncoded() {
+        String bits = index.encode(Set.of("ROLE_ADMIN", "MANAGE_USERS", "DELETE_COURSE"));
+
+        List<String> names = index.decode(bits);
+        assertEquals(List.of("ROLE_ADMIN", "MANAGE_USERS", "DELETE_COURSE"), names);
+    }
+
+    @Test
+    void trimsTrailingEmptyBytes() {
+        assertEquals("AQ", index.encode(Set.of("ROLE_USER")));
+        assertEquals("", index.encode(Set.of()));
+    }
+
+    @Test
+    void sharesTheDecodedAuthorities() {
+        String bits = index.encode(Set.of("ROLE_USER", "VIEW_PROFILE"));
+
+        assertSame(index.decode(bits), index.decode(bits));
+    }
+
+    @Test
+    void versionDependsOnOrderAndNames() {
+        assertEquals(index.getVersion(), new PermissionIndex(List.of(
+                "ROLE_USER", "ROLE_ADMIN", "VIEW_PROFILE", "VIEW_COURSE", "EDIT_COURSE",
+                "MANAGE_USERS", "EXPORT_REPORTS", "IMPORT_USERS", "DELETE_COURSE")).getVersion());
+        assertNotEquals(index.getVersion(), new PermissionIndex(List.of("ROLE_ADMIN", "ROLE_USER")).getVersion());
+    }
+
+    @Test
+    void rejectsBitsOutsideTheIndex() {
+        assertThrows(IllegalArgumentException.class, () -> index.encode(Set.of("UNKNOWN")));
+        // only bits 0 to 8 are assigned
+        assertThrows(IllegalArgumentException.class, () -> index.decode("AAI"));
+        assertThrows(IllegalArgumentException.class, () -> index.decode("AAAA"));
+    }
+}
@@ -0,0 +1,154 @@
+package com.novastudy.service;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.PlainJWT;
+import com.novastudy.config.TokenProperties;
+import com.novastudy.dto.response.RefreshAccessTokenResponse;
+import com.novastudy.exception.AppException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class RefreshCoalescerTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final RefreshCoalescer coalescer = new RefreshCoalescer(userService, tokenProperties(), new SimpleMeterRegistry());
+
+    private static TokenProperties tokenProperties() {
+        TokenProperties tokenProperties = new TokenProperties();
+        tokenProperties.setAccessTokenValidateSeconds(10);
+        tokenProperties.setRefreshReuseWindow(Duration.ofSeconds(2));
+        tokenProperties.setRefreshJoinTimeout(Duration.ofSeconds(1));
+        return tokenProperties;
+    }
+
+    private static String refreshTokenFor(String username) {
+        return new PlainJWT(new JWTClaimsSet.Builder().subject(username).build()).serialize();
+    }
+
+    @Test
+    void concurrentRefreshesShareOneCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.refreshToken("refresh")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new RefreshAccessTokenResponse("access");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<RefreshAccessTokenResponse>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> coalescer.refresh("refresh")));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            RefreshAccessTokenResponse first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<RefreshAccessTokenResponse> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // reused inside the window
+        assertEquals("access", coalescer.refresh("refresh").getAccessToken());
+        verify(userService, times(1)).refreshToken("refresh");
+    }
+
+    @Test
+    void evictedTokenIsRefreshedAgain() {
+        when(userService.refreshToken("refresh")).thenReturn(new RefreshAccessTokenResponse("access"));
+
+        coalescer.refresh("refresh");
+        coalescer.evict("refresh");
+        coalescer.refresh("refresh");
+
+        verify(userService, times(2)).refreshToken("refresh");
+    }
+
+    @Test
+    void evictUserOnlyDropsThatUsersTokens() {
+        String alice = refreshTokenFor("alice");
+        String bob = refreshTokenFor("bob");
+        when(userService.refreshToken(anyString())).thenReturn(new RefreshAccessTokenResponse("access"));
+
+        coalescer.refresh(alice);
+        coalescer.refresh(bob);
+        coalescer.evictUser("alice");
+        coalescer.refresh(alice);
+        coalescer.refresh(bob);
+
+        verify(userService, times(2)).refreshToken(alice);
+        verify(userService, times(1)).refreshToken(bob);
+    }
+
+    @Test
+    void failuresAreNotReused() {
+        when(userService.refreshToken("refresh"))
+                .thenThrow(AppException.unauthorized("Refresh token is not valid"))
+                .thenReturn(new RefreshAccessTokenResponse("access"));
+
+        assertThrows(AppException.Exception.class, () -> coalescer.refresh("refresh"));
+        assertEquals("access", coalescer.refresh("refresh").getAccessToken());
+    }
+
+    @Test
+    void followersStopWaitingForAStuckLeader() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.refreshToken("refresh"))
+                .thenAnswer(invocation -> {
+                    leaderStarted.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return new RefreshAccessTokenResponse("leader");
+                })
+                .thenReturn(new RefreshAccessTokenResponse("follower"));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<RefreshAccessTokenResponse> leader = executor.submit(() -> coalescer.refresh("refresh"));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            assertEquals("follower", coalescer.refresh("refresh").getAccessToken());
+            release.countDown();
+            assertEquals("leader", leader.get(5, TimeUnit.SECONDS).getAccessToken());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void errorsReachTheWaitingFollowers() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.refreshToken("refresh")).thenAnswer(invocation -> {
+            leaderStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new StackOverflowError();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<RefreshAccessTokenResponse> leader = executor.submit(() -> coalescer.refresh("refresh"));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            Future<RefreshAccessTokenResponse> follower = executor.submit(() -> coalescer.refresh("refresh"));
+            Thread.sleep(200);
+            release.countDown();
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> follower.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, failure.getCause());
+            assertInstanceOf(StackOverflowError.class, assertThrows(ExecutionException.class, leader::get).getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(userService, times(1)).refreshToken("refresh");
+    }
+}
@@ -0,0 +1,127 @@
+package com.novastudy.service;
+
+import com.novastudy.config.RevocationProperties;
+import com.novastudy.entity.TokenBlackList;
+import com.novastudy.repository.TokenBlacklistRepository;
+import com.novastudy.utils.BloomFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationCacheTest {
+
+    private final TokenBlacklistRepository repository = mock(TokenBlacklistRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TokenRevocationCache cache(long expectedInsertions, double falsePositiveProbability, int maxEntries) {
+        RevocationProperties properties = new RevocationProperties();
+        properties.setExpectedInsertions(expectedInsertions);
+        properties.setFalsePositiveProbability(falsePositiveProbability);
+        properties.setMaxEntries(maxEntries);
+        return new TokenRevocationCache(repository, properties, meterRegistry);
+    }
+
+    private static TokenBlackList revoked(String jti) {
+        return TokenBlackList.builder().jti(jti).expiresAt(LocalDateTime.now().plusHours(1)).build();
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("novastudy.revocation.lookups").tag("result", result).counter().count();
+    }
+
+    @Test
+    void revokedTokensAreAnsweredFromMemory() {
+        TokenRevocationCache cache = cache(1_000, 0.001, 100);
+
+        cache.revoke("revoked", LocalDateTime.now().plusHours(1));
+
+        assertTrue(cache.isRevoked("revoked"));
+        assertFalse(cache.isRevoked("active"));
+        verify(repository, never()).findByJti(anyString());
+    }
+
+    @Test
+    void bloomFalsePositiveFallsThroughToTheDatabase() {
+        // one expected insertion at 50% gives a single-word, single-hash filter, so a collision is easy to find
+        TokenRevocationCache cache = cache(1, 0.5, 100);
+        cache.revoke("revoked", LocalDateTime.now().plusHours(1));
+
+        BloomFilter sameFilter = BloomFilter.create(1, 0.5);
+        sameFilter.put("revoked".getBytes(StandardCharsets.UTF_8));
+        String collision = null;
+        for (int i = 0; collision == null; i++) {
+            if (sameFilter.mightContain(("active-" + i).getBytes(StandardCharsets.UTF_8))) {
+                collision = "active-" + i;
+            }
+        }
+        when(repository.findByJti(collision)).thenReturn(Optional.empty());
+
+        assertFalse(cache.isRevoked(collision));
+        verify(repository).findByJti(collision);
+        assertEquals(1.0, lookups("false_positive"));
+    }
+
+    @Test
+    void rebuildKeepsRevocationsMadeDuringTheReload() throws Exception {
+        TokenRevocationCache cache = cache(1_000, 0.001, 100);
+        cache.revoke("before", LocalDateTime.now().plusHours(1));
+
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // the table does not show either revocation yet, as if neither had committed when it was read
+        when(repository.findAllByExpiresAtAfter(any())).thenAnswer(invocation -> {
+            reading.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return List.of(revoked("stored"));
+        });
+
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(cache::rebuild);
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> revoke = CompletableFuture.runAsync(
+                () -> cache.revoke("during", LocalDateTime.now().plusHours(1)));
+        release.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+        revoke.get(5, TimeUnit.SECONDS);
+
+        assertTrue(cache.isRevoked("before"));
+        assertTrue(cache.isRevoked("during"));
+        assertTrue(cache.isRevoked("stored"));
+        verify(repository, never()).findByJti(anyString());
+    }
+
+    @Test
+    void boundsTheRememberedEntries() {
+        TokenRevocationCache cache = cache(1_000, 0.001, 2);
+        when(repository.findByJti(anyString())).thenAnswer(invocation -> Optional.of(revoked(invocation.getArgument(0))));
+
+        for (int i = 0; i < 20; i++) {
+            cache.revoke("jti-" + i, LocalDateTime.now().plusHours(1));
+        }
+        // eviction is amortized, so the size may briefly exceed the bound
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (meterRegistry.get("novastudy.revocation.cache.size").gauge().value() > 2) {
+                cache.isRevoked("jti-0");
+                Thread.onSpinWait();
+            }
+        });
+
+        // evicted tokens are still in the bloom filter, the database answers for them
+        for (int i = 0; i < 20; i++) {
+            assertTrue(cache.isRevoked("jti-" + i));
+        }
+        verify(repository, atLeast(1)).findByJti(anyString());
+    }
+}
@@ -0,0 +1,73 @@
+package com.novastudy.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novastudy.entity.Permission;
+import com.novastudy.entity.Role;
+import com.novastudy.repository.PermissionRepository;
+import com.novastudy.repository.RoleRepository;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// registers and logs in users through the auth endpoints of a MockMvc test
+public final class AuthFixture {
+    public static final String PASSWORD = "secret123";
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+
+    public AuthFixture(MockMvc mockMvc, ObjectMapper objectMapper) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+    }
+
+    // registration assigns ROLE_USER, created once per context with VIEW_PROFILE for /auth/my-account
+    public static void createUserRole(RoleRepository roleRepository, PermissionRepository permissionRepository) {
+        if (roleRepository.findByName("ROLE_USER").isEmpty()) {
+            Permission permission = permissionRepository.save(Permission.builder().name("VIEW_PROFILE").build());
+            roleRepository.save(Role.builder().name("ROLE_USER").permissions(new HashSet<>(Set.of(permission))).build());
+        }
+    }
+
+    public static String email(String username) {
+        return username + "@novastudy.com";
+    }
+
+    public void register(String username) throws Exception {
+        mockMvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", username, "password", PASSWORD, "email", email(username)))))
+                .andExpect(status().isOk());
+    }
+
+    public MvcResult loginResult(String username) throws Exception {
+        return mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", username, "password", PASSWORD))))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    // the "data" of the login response, with accessToken and refreshToken
+    public JsonNode login(String username) throws Exception {
+        return data(loginResult(username));
+    }
+
+    public String accessToken(String username) throws Exception {
+        return login(username).get("accessToken").asText();
+    }
+
+    public String json(Map<String, String> fields) throws Exception {
+        return objectMapper.writeValueAsString(fields);
+    }
+
+    public JsonNode data(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("data");
+    }
+}
@@ -0,0 +1,22 @@
+package com.novastudy.support;
+
+import com.novastudy.config.RequestSqlStats;
+import com.novastudy.config.SqlStatementBudgetFilter;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// asserts on the statements SqlStatementBudgetFilter counted for a MockMvc request
+public final class SqlStatementBudget {
+    private SqlStatementBudget() {
+    }
+
+    public static void assertAtMost(MvcResult result, int maxStatements) {
+        RequestSqlStats stats = (RequestSqlStats) result.getRequest().getAttribute(SqlStatementBudgetFilter.SQL_STATS_ATTRIBUTE);
+        assertNotNull(stats, "SqlStatementBudgetFilter did not run for " + result.getRequest().getRequestURI());
+        assertTrue(stats.getStatementCount() <= maxStatements,
+                () -> result.getRequest().getRequestURI() + " ran " + stats.getStatementCount()
+                        + " statements, budget is " + maxStatements + ": " + stats.getCountsBySql());
+    }
+}
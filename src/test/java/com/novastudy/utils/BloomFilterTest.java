@@ -0,0 +1,52 @@
+package com.novastudy.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    private static byte[] key(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void neverForgetsAnInsertedKey() {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+        for (int i = 0; i < 5_000; i++) {
+            filter.put(key("jti-" + i));
+        }
+
+        // well past the expected insertions, so false positives grow but false negatives must not appear
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(filter.mightContain(key("jti-" + i)), "jti-" + i);
+        }
+    }
+
+    @Test
+    void staysNearTheConfiguredFalsePositiveRate() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(key("revoked-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(key("active-" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, falsePositives + " false positives");
+        assertTrue(filter.expectedFalsePositiveProbability() < 0.03);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = BloomFilter.create(100, 0.001);
+
+        assertFalse(filter.mightContain(key("jti")));
+        assertEquals(0.0, filter.expectedFalsePositiveProbability());
+    }
+}